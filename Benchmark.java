@@ -0,0 +1,228 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Benchmark das três implementações (Edmonds, Edmonds2 e Edmonds3) sobre grafos
+// gerados com semente fixa, de 10^3 a 10^7 arestas.
+//
+// Cada combinação (implementação, tipo de grafo, tamanho) roda em uma JVM própria,
+// como no JMH: isola JIT e GC entre medições e permite matar execuções que não
+// terminam. Mede vazão, latência (p50/p90/p99/máx.) e alocação por operação
+// (ThreadMXBean, somada sobre as threads da JVM), e grava tudo em JSON para
+// acompanhar regressões.
+//
+// Uso: java Benchmark [--impls edmonds,edmonds2,edmonds3] [--graphs sparse,dense,cycles,worst]
+//                     [--sizes 1000,10000,...] [--time s] [--warmup s] [--timeout s]
+//                     [--seed n] [--out arquivo.json]
+public class Benchmark {
+    private static final String[] IMPLS = {"edmonds", "edmonds2", "edmonds3"};
+    private static final String[] GRAPHS = {"sparse", "dense", "cycles", "worst"};
+    private static final int[] SIZES = {1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--fork")) {
+            runFork(args[1], args[2], Integer.parseInt(args[3]), Long.parseLong(args[4]), Double.parseDouble(args[5]),
+                    Double.parseDouble(args[6]));
+            return;
+        }
+
+        String[] impls = IMPLS;
+        String[] graphs = GRAPHS;
+        int[] sizes = SIZES;
+        double time = 3; // Segundos de medição por combinação.
+        double warmup = 1; // Segundos de aquecimento por combinação.
+        double timeout = 60; // Tempo máximo de cada JVM filha.
+        long seed = 42;
+        String out = "bench_results.json";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--impls": impls = value.split(","); break;
+                case "--graphs": graphs = value.split(","); break;
+                case "--sizes": sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray(); break;
+                case "--time": time = Double.parseDouble(value); break;
+                case "--warmup": warmup = Double.parseDouble(value); break;
+                case "--timeout": timeout = Double.parseDouble(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--out": out = value; break;
+                default: throw new IllegalArgumentException("opção desconhecida: " + args[i]);
+            }
+        }
+
+        List<String> results = new ArrayList<>();
+        for (String impl : impls) {
+            for (String graph : graphs) {
+                boolean skip = false; // Depois de um timeout, tamanhos maiores também estourariam.
+                for (int size : sizes) {
+                    String result = skip
+                            ? status(impl, graph, size, "skipped")
+                            : fork(impl, graph, size, seed, warmup, time, timeout);
+                    skip |= result.contains("\"status\":\"timeout\"");
+                    System.out.println(result);
+                    results.add(result);
+                }
+            }
+        }
+        try (PrintWriter writer = new PrintWriter(out, StandardCharsets.UTF_8)) {
+            writer.println("[");
+            writer.println(String.join(",\n", results));
+            writer.println("]");
+        }
+        System.out.println("Resultados em " + out);
+    }
+
+    private static String fork(String impl, String graph, int size, long seed, double warmup, double time, double timeout)
+            throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "Benchmark", "--fork",
+                impl, graph, Integer.toString(size), Long.toString(seed), Double.toString(warmup), Double.toString(time));
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+        List<String> output = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    synchronized (output) {
+                        output.add(line);
+                    }
+                }
+            } catch (IOException e) {
+                // A JVM filha foi encerrada; o que foi lido até aqui basta.
+            }
+        });
+        reader.start();
+        if (!process.waitFor((long) (timeout * 1000), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly().waitFor();
+            reader.join();
+            return status(impl, graph, size, "timeout");
+        }
+        reader.join();
+        synchronized (output) {
+            for (String line : output) {
+                if (line.startsWith("{")) {
+                    return line;
+                }
+            }
+            String first = output.isEmpty() ? "sem saída" : output.get(0); // Primeira linha da exceção.
+            return status(impl, graph, size, "error: " + first.replace("\\", "\\\\").replace("\"", "\\\""));
+        }
+    }
+
+    private static String status(String impl, String graph, int size, String status) {
+        return String.format(Locale.ROOT, "{\"benchmark\":\"%s\",\"graph\":\"%s\",\"edges\":%d,\"status\":\"%s\"}",
+                impl, graph, size, status);
+    }
+
+    private static void runFork(String impl, String kind, int size, long seed, double warmup, double time) {
+        // Executado na JVM filha: gera o grafo, aquece e mede.
+        CsrGraph graph = GraphGenerator.generate(kind, size, seed);
+        Supplier<Runnable> operation = operation(impl, graph);
+
+        measure(operation, warmup);
+        Measurement m = measure(operation, time);
+
+        long[] sorted = Arrays.copyOf(m.latencies, m.count);
+        Arrays.sort(sorted);
+        double seconds = m.totalNanos / 1e9;
+        System.out.println(String.format(Locale.ROOT,
+                "{\"benchmark\":\"%s\",\"graph\":\"%s\",\"edges\":%d,\"vertices\":%d,\"status\":\"ok\",\"iterations\":%d,"
+                        + "\"opsPerSecond\":%.3f,\"latencyMs\":{\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"max\":%.3f},"
+                        + "\"allocBytesPerOp\":%d,\"allocMBPerSecond\":%.3f}",
+                impl, kind, graph.numEdges(), graph.numVertices(), m.count, m.count / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), sorted[m.count - 1] / 1e6,
+                m.allocatedBytes / m.count, m.allocatedBytes / seconds / (1 << 20)));
+    }
+
+    private static Measurement measure(Supplier<Runnable> operation, double seconds) {
+        // Repete a operação até completar o tempo (pelo menos uma vez). A preparação da
+        // entrada, feita pelo Supplier, fica fora do tempo e da alocação medidos.
+        // A alocação é somada sobre todas as threads da JVM, para contar também as do pool.
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long budget = (long) (seconds * 1e9);
+        Measurement m = new Measurement();
+        do {
+            Runnable run = operation.get();
+            long[] before = threads.getAllThreadIds();
+            long[] allocated = threads.getThreadAllocatedBytes(before);
+            long start = System.nanoTime();
+            run.run();
+            long elapsed = System.nanoTime() - start;
+            m.allocatedBytes += allocatedSince(threads, before, allocated);
+            m.totalNanos += elapsed;
+            if (m.count == m.latencies.length) {
+                m.latencies = Arrays.copyOf(m.latencies, 2 * m.count);
+            }
+            m.latencies[m.count++] = elapsed;
+        } while (m.totalNanos < budget);
+        return m;
+    }
+
+    private static long allocatedSince(com.sun.management.ThreadMXBean threads, long[] ids, long[] allocated) {
+        // Bytes alocados desde a leitura (ids, allocated). Threads criadas no meio contam desde o
+        // início; as que terminaram no meio ficam de fora (a JVM não guarda o que alocaram).
+        long[] now = threads.getAllThreadIds();
+        long[] current = threads.getThreadAllocatedBytes(now);
+        long total = 0;
+        for (int i = 0; i < now.length; i++) {
+            if (current[i] > 0) {
+                total += current[i];
+            }
+        }
+        Arrays.sort(now);
+        for (int i = 0; i < ids.length; i++) {
+            if (allocated[i] > 0 && Arrays.binarySearch(now, ids[i]) >= 0) {
+                total -= allocated[i];
+            }
+        }
+        return total;
+    }
+
+    private static final class Measurement {
+        int count; // Número de execuções.
+        long totalNanos; // Tempo somado das execuções.
+        long allocatedBytes; // Bytes alocados pelas execuções, em todas as threads.
+        long[] latencies = new long[1024]; // Duração de cada execução, em nanossegundos.
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static Supplier<Runnable> operation(String impl, CsrGraph graph) {
+        // Cada implementação roda a resolução inteira (Edmonds2 e Edmonds3: fase de branching e depois
+        // a de raiz). Edmonds3 altera os pesos das arestas e Edmonds2 guarda os custos reduzidos nas
+        // próprias arestas, então cada execução recebe uma cópia nova.
+        switch (impl) {
+            case "edmonds":
+                return () -> () -> {
+                    Edmonds edmonds = new Edmonds(graph);
+                    edmonds.setParallelism(1);
+                    edmonds.findOptimumBranching(0);
+                };
+            case "edmonds2":
+                return () -> {
+                    var input = Edmonds2.fromCsr(graph);
+                    return () -> Edmonds2.rootAlgorithm(Edmonds2.branchAndRoot(input), input);
+                };
+            case "edmonds3":
+                return () -> {
+                    var input = Edmonds3.fromCsr(graph);
+                    return () -> Edmonds3.rootAlgorithm(input, Edmonds3.branchAlgorithm(input));
+                };
+            default:
+                throw new IllegalArgumentException("implementação desconhecida: " + impl);
+        }
+    }
+}
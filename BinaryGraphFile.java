@@ -0,0 +1,116 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Formato binário do grafo CSR, para evitar reler o arquivo texto a cada execução.
+//
+// Layout (inteiros de 32 bits, little-endian):
+//   cabeçalho: magic "EDMB", versão, numVertices, numEdges
+//   offsets[numVertices + 1], sources[numEdges], targets[numEdges], costs[numEdges],
+//   inOffsets[numVertices + 1], inEdges[numEdges]
+//
+// A carga mapeia cada seção e o CsrGraph lê direto do arquivo mapeado, sem cópia.
+final class BinaryGraphFile {
+    static final int MAGIC = 0x424D4445; // "EDMB" em little-endian.
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16; // Tamanho do cabeçalho em bytes.
+
+    private BinaryGraphFile() {
+    }
+
+    static boolean isBinary(String filePath) throws IOException {
+        // Verifica o magic no início do arquivo.
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Lê até completar os 4 bytes ou chegar ao fim do arquivo.
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    static void write(CsrGraph graph, String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(graph.numVertices()).putInt(graph.numEdges());
+            buffer.flip();
+            writeFully(channel, buffer);
+
+            for (IntBuffer section : graph.sections()) {
+                section.rewind();
+                while (section.hasRemaining()) {
+                    buffer.clear();
+                    IntBuffer ints = buffer.asIntBuffer();
+                    int count = Math.min(section.remaining(), ints.capacity());
+                    IntBuffer slice = section.slice();
+                    slice.limit(count);
+                    ints.put(slice);
+                    section.position(section.position() + count);
+                    buffer.limit(4 * count);
+                    writeFully(channel, buffer);
+                }
+            }
+        }
+    }
+
+    static CsrGraph load(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException(filePath + ": arquivo binário truncado");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(filePath + ": não é um grafo binário");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(filePath + ": versão " + header.getInt(4) + " não suportada");
+            }
+            int numVertices = header.getInt(8);
+            int numEdges = header.getInt(12);
+            long[] lengths = {numVertices + 1L, numEdges, numEdges, numEdges, numVertices + 1L, numEdges};
+            long expected = HEADER_SIZE;
+            for (long length : lengths) {
+                expected += 4 * length;
+            }
+            if (numVertices < 0 || numEdges < 0 || channel.size() != expected) {
+                throw new IOException(filePath + ": tamanho " + channel.size() + " não confere com o cabeçalho (esperado " + expected + ")");
+            }
+
+            IntBuffer[] sections = new IntBuffer[lengths.length];
+            long pos = HEADER_SIZE;
+            for (int i = 0; i < lengths.length; i++) {
+                long bytes = 4 * lengths[i];
+                if (bytes > Integer.MAX_VALUE) {
+                    throw new IOException(filePath + ": seção com " + bytes + " bytes excede o limite de mapeamento");
+                }
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, pos, bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                pos += bytes;
+            }
+            return new CsrGraph(numVertices, numEdges, sections[0], sections[1], sections[2], sections[3], sections[4], sections[5]);
+        }
+    }
+
+    static void convert(String textPath, String binaryPath) throws IOException {
+        // Converte o formato texto de Edmonds.readFile para o formato binário.
+        write(EdgeListLoader.load(textPath), binaryPath);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Uso: java BinaryGraphFile <edges.txt> <grafo.bin>");
+            return;
+        }
+        convert(args[0], args[1]);
+    }
+}
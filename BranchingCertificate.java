@@ -0,0 +1,294 @@
+import java.util.Arrays;
+
+// Certificado dual de um branching ótimo e o verificador que o confere.
+//
+// No PL do branching de custo mínimo com raiz r, cada conjunto S de vértices
+// (sem r) tem um dual y_S; os conjuntos com dual são os da árvore de contração
+// do OptimumBranching: os vértices sozinhos (folhas 0 .. numVertices - 1) e os
+// ciclos contraídos (nós numVertices ..), e o pai de cada nó é o ciclo que o
+// contém. O dual de um nó é o custo reduzido da aresta que ele escolheu ao ser
+// visitado: o de um vértice é livre (cada vértice tem exatamente uma aresta de
+// entrada) e o de um ciclo é >= 0.
+//
+// check() confere em O(V + E) (mais o inverso de Ackermann do union-find):
+//   1. parentEdge é uma arborescência com raiz r que cobre os alcançáveis;
+//   2. viabilidade dual: toda aresta u -> v entre alcançáveis tem custo reduzido
+//      c(e) - soma de y_S com v em S e u fora de S >= 0; a soma é
+//      P(v) - P(lca(u, v)), com P a soma dos duais até o topo da árvore, e os
+//      LCAs saem todos de uma passada do algoritmo offline de Tarjan;
+//   3. folgas complementares: as arestas da árvore têm custo reduzido 0 e cada
+//      ciclo com dual > 0 recebe exatamente uma aresta da árvore.
+// Juntas, 2 e 3 provam que o custo da árvore é igual ao valor do dual, ou seja,
+// que ela é ótima. Sem certificado, só o item 1 é conferido.
+final class BranchingCertificate {
+    int numVertices; // Número de vértices do grafo resolvido.
+    int numNodes; // Folhas mais ciclos contraídos.
+    long[] dual = new long[0]; // Dual de cada nó.
+    int[] parent = new int[0]; // Ciclo que contém cada nó (-1 no topo); sempre maior que o próprio nó.
+
+    void reset(int numVertices) {
+        // Prepara o certificado para um grafo com numVertices vértices, reaproveitando os arrays.
+        this.numVertices = numVertices;
+        this.numNodes = numVertices;
+        int capacity = Math.max(1, 2 * numVertices);
+        if (dual.length < capacity) {
+            dual = new long[capacity];
+            parent = new int[capacity];
+        }
+        Arrays.fill(dual, 0, capacity, 0);
+        Arrays.fill(parent, 0, capacity, -1);
+    }
+
+    long dualValue() {
+        // Valor da solução dual: a soma de todos os duais.
+        long sum = 0;
+        for (int x = 0; x < numNodes; x++) {
+            sum += dual[x];
+        }
+        return sum;
+    }
+
+    static void check(CsrGraph graph, int root, int[] parentEdge, BranchingCertificate certificate) {
+        // Lança IllegalStateException com o motivo se o resultado ou o certificado não conferem.
+        int n = graph.numVertices();
+        if (root < 0 || root >= n || parentEdge.length != n) {
+            throw new IllegalStateException("raiz ou tamanho do resultado inválido");
+        }
+        boolean[] reachable = reachableFrom(graph, root);
+
+        // 1. Arborescência: cada alcançável (menos a raiz) entra por uma aresta vinda de um alcançável.
+        long cost = 0;
+        for (int v = 0; v < n; v++) {
+            int e = parentEdge[v];
+            if (v == root || !reachable[v]) {
+                if (e != -1) {
+                    throw new IllegalStateException("vértice " + v + " não deveria ter aresta de entrada");
+                }
+                continue;
+            }
+            if (e < 0 || e >= graph.numEdges() || graph.target(e) != v) {
+                throw new IllegalStateException("vértice " + v + " sem aresta de entrada válida");
+            }
+            if (!reachable[graph.source(e)] || graph.source(e) == v) {
+                throw new IllegalStateException("aresta " + e + " de " + v + " sai de um vértice inválido");
+            }
+            cost += graph.longCost(e);
+        }
+        byte[] state = new byte[n]; // 0 = novo, 1 = no caminho atual, 2 = chega na raiz.
+        state[root] = 2;
+        for (int s = 0; s < n; s++) {
+            int v = s;
+            while (reachable[v] && state[v] == 0) {
+                state[v] = 1;
+                v = graph.source(parentEdge[v]);
+            }
+            if (reachable[v] && state[v] == 1) {
+                throw new IllegalStateException("ciclo passando pelo vértice " + v);
+            }
+            for (v = s; reachable[v] && state[v] == 1; v = graph.source(parentEdge[v])) {
+                state[v] = 2;
+            }
+        }
+        if (certificate == null) {
+            return;
+        }
+
+        // Estrutura do certificado: uma floresta (pai maior que o filho) só com vértices alcançáveis.
+        int numNodes = certificate.numNodes;
+        long[] dual = certificate.dual;
+        int[] treeParent = certificate.parent;
+        if (certificate.numVertices != n || numNodes < n || numNodes > 2 * n) {
+            throw new IllegalStateException("certificado de outro grafo");
+        }
+        for (int x = 0; x < numNodes; x++) {
+            if (treeParent[x] != -1 && (treeParent[x] <= x || treeParent[x] >= numNodes)) {
+                throw new IllegalStateException("árvore de contração inválida no nó " + x);
+            }
+            if (x < n && (x == root || !reachable[x]) && (treeParent[x] != -1 || dual[x] != 0)) {
+                throw new IllegalStateException("vértice " + x + " não deveria estar no certificado");
+            }
+            if (x >= n && dual[x] < 0) {
+                throw new IllegalStateException("dual negativo no ciclo " + x);
+            }
+        }
+        if (certificate.dualValue() != cost) {
+            throw new IllegalStateException("custo " + cost + " diferente do valor dual " + certificate.dualValue());
+        }
+
+        int top = numNodes;
+        long[] prefix = certificate.prefixSums();
+        int[] lca = lowestCommonAncestors(graph, root, reachable, treeParent, numNodes);
+
+        // 2 e 3: custos reduzidos e quantas arestas da árvore entram em cada ciclo.
+        int[] entering = new int[numNodes + 1];
+        for (int e = 0; e < graph.numEdges(); e++) {
+            int u = graph.source(e);
+            int v = graph.target(e);
+            if (!reachable[u] || u == v || v == root) {
+                continue;
+            }
+            long reduced = graph.longCost(e) - (prefix[v] - prefix[lca[e]]);
+            if (reduced < 0) {
+                throw new IllegalStateException("aresta " + e + " com custo reduzido negativo: " + reduced);
+            }
+            if (parentEdge[v] == e) {
+                if (reduced != 0) {
+                    throw new IllegalStateException("aresta " + e + " da árvore com custo reduzido " + reduced);
+                }
+                entering[v]++; // Entra em todos os nós de v até o LCA (exclusive).
+                entering[lca[e]]--;
+            }
+        }
+        for (int x = 0; x < numNodes; x++) {
+            entering[treeParent[x] < 0 ? top : treeParent[x]] += entering[x];
+            if (x >= n && dual[x] > 0 && entering[x] != 1) {
+                throw new IllegalStateException("ciclo " + x + " com dual positivo recebe " + entering[x] + " arestas");
+            }
+        }
+    }
+
+    long[] reducedCosts(CsrGraph graph, int root, boolean[] reachable) {
+        // Custo reduzido de cada aresta u -> v entre alcançáveis com v != raiz (Long.MAX_VALUE nas
+        // demais), pelos duais deste certificado; O(V + E) como check().
+        long[] prefix = prefixSums();
+        int[] lca = lowestCommonAncestors(graph, root, reachable, parent, numNodes);
+        long[] reduced = new long[graph.numEdges()];
+        for (int e = 0; e < graph.numEdges(); e++) {
+            int u = graph.source(e);
+            int v = graph.target(e);
+            boolean considered = reachable[u] && u != v && v != root;
+            reduced[e] = considered ? graph.longCost(e) - (prefix[v] - prefix[lca[e]]) : Long.MAX_VALUE;
+        }
+        return reduced;
+    }
+
+    private long[] prefixSums() {
+        // P(x): soma dos duais de x até o topo; o nó numNodes é um topo virtual com dual 0.
+        long[] prefix = new long[numNodes + 1];
+        for (int x = numNodes - 1; x >= 0; x--) {
+            prefix[x] = dual[x] + (parent[x] < 0 ? 0 : prefix[parent[x]]);
+        }
+        return prefix;
+    }
+
+    private static int[] lowestCommonAncestors(CsrGraph graph, int root, boolean[] reachable, int[] treeParent, int numNodes) {
+        // LCA de origem e destino de cada aresta considerada, pelo algoritmo offline de Tarjan
+        // sobre a árvore de contração (com o topo virtual numNodes como raiz).
+        int n = graph.numVertices();
+        int top = numNodes;
+        int[] childOffsets = new int[numNodes + 2];
+        for (int x = 0; x < numNodes; x++) {
+            childOffsets[(treeParent[x] < 0 ? top : treeParent[x]) + 1]++;
+        }
+        for (int x = 0; x <= numNodes; x++) {
+            childOffsets[x + 1] += childOffsets[x];
+        }
+        int[] children = new int[numNodes];
+        int[] fill = Arrays.copyOf(childOffsets, numNodes + 1);
+        for (int x = 0; x < numNodes; x++) {
+            children[fill[treeParent[x] < 0 ? top : treeParent[x]]++] = x;
+        }
+        // Consultas: cada aresta fica nas duas pontas.
+        int[] queryOffsets = new int[n + 1];
+        for (int e = 0; e < graph.numEdges(); e++) {
+            int u = graph.source(e);
+            int v = graph.target(e);
+            if (reachable[u] && u != v && v != root) {
+                queryOffsets[u + 1]++;
+                queryOffsets[v + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            queryOffsets[v + 1] += queryOffsets[v];
+        }
+        int[] queries = new int[queryOffsets[n]];
+        fill = Arrays.copyOf(queryOffsets, n);
+        for (int e = 0; e < graph.numEdges(); e++) {
+            int u = graph.source(e);
+            int v = graph.target(e);
+            if (reachable[u] && u != v && v != root) {
+                queries[fill[u]++] = e;
+                queries[fill[v]++] = e;
+            }
+        }
+
+        int[] lca = new int[graph.numEdges()];
+        int[] uf = new int[numNodes + 1];
+        int[] rank = new int[numNodes + 1];
+        int[] ancestor = new int[numNodes + 1]; // Ancestral atual do conjunto de cada representante.
+        boolean[] done = new boolean[numNodes + 1];
+        int[] next = new int[numNodes + 1]; // Próximo filho a visitar.
+        int[] stack = new int[numNodes + 1];
+        int depth = 0;
+        stack[depth++] = top;
+        uf[top] = top;
+        ancestor[top] = top;
+        next[top] = childOffsets[top];
+        while (depth > 0) {
+            int x = stack[depth - 1];
+            if (next[x] < childOffsets[x + 1]) {
+                int child = children[next[x]++];
+                uf[child] = child;
+                ancestor[child] = child;
+                next[child] = childOffsets[child];
+                stack[depth++] = child;
+                continue;
+            }
+            done[x] = true;
+            if (x < n) {
+                for (int i = queryOffsets[x]; i < queryOffsets[x + 1]; i++) {
+                    int e = queries[i];
+                    int y = graph.source(e) == x ? graph.target(e) : graph.source(e);
+                    if (done[y]) {
+                        lca[e] = ancestor[find(uf, y)];
+                    }
+                }
+            }
+            depth--;
+            if (depth > 0) {
+                int p = stack[depth - 1];
+                int a = find(uf, x); // O conjunto do filho se junta ao do pai (união por posto).
+                int b = find(uf, p);
+                if (rank[a] > rank[b]) {
+                    int swap = a;
+                    a = b;
+                    b = swap;
+                }
+                uf[a] = b;
+                if (rank[a] == rank[b]) {
+                    rank[b]++;
+                }
+                ancestor[b] = p;
+            }
+        }
+        return lca;
+    }
+
+    private static int find(int[] uf, int x) {
+        // Representante de x com compressão de caminho (por divisão).
+        while (uf[x] != x) {
+            uf[x] = uf[uf[x]];
+            x = uf[x];
+        }
+        return x;
+    }
+
+    private static boolean[] reachableFrom(CsrGraph graph, int root) {
+        boolean[] reachable = new boolean[graph.numVertices()];
+        int[] stack = new int[graph.numVertices()];
+        int top = 0;
+        reachable[root] = true;
+        stack[top++] = root;
+        while (top > 0) {
+            int u = stack[--top];
+            for (int e = graph.firstOutEdge(u); e < graph.endOutEdge(u); e++) {
+                int v = graph.target(e);
+                if (!reachable[v]) {
+                    reachable[v] = true;
+                    stack[top++] = v;
+                }
+            }
+        }
+        return reachable;
+    }
+}
@@ -0,0 +1,21 @@
+// Ouvinte de métricas dos algoritmos de branching (veja Metrics e MetricsRecorder).
+// Os laços quentes só contam em variáveis locais e avisam o ouvinte uma vez por
+// fase; com o ouvinte padrão NONE nem o relógio é consultado.
+interface BranchingMetrics {
+    BranchingMetrics NONE = new BranchingMetrics() {
+    };
+
+    default void phase(String algorithm, String phase, long nanos) {
+        // Duração de uma fase (carga, seleção, contração, expansão...).
+    }
+
+    default void contractions(String algorithm, long[] cycleLengths) {
+        // cycleLengths[k] ciclos de k vértices foram contraídos (histograma local da fase).
+    }
+
+    default void heapOperations(String algorithm, long count) {
+    }
+
+    default void edgesScanned(String algorithm, long count) {
+    }
+}
@@ -0,0 +1,442 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Serviço de longa duração que responde consultas de branching sobre grafos
+// mantidos em memória.
+//
+// Os grafos ficam num registro LRU limitado pelo tamanho total (vértices mais
+// arestas) e pelo número de grafos; o menos usado sai primeiro. Cada carga de um
+// nome ganha uma versão nova, e os resultados ficam num cache LRU por grafo com a
+// chave (versão, objetivo, modo, raiz), então uma recarga nunca devolve resultado
+// velho. Os motores (SuperRootBranching) não são thread-safe: cada grafo mantém
+// uma fila de motores livres e cada consulta pega um emprestado. Um semáforo
+// limita os motores de cada grafo (maxEngines); os grafos aumentados são
+// compartilhados por eles, e ambos entram no tamanho do registro, na mesma
+// unidade, assim que são criados.
+//
+// As consultas rodam em virtual threads quando a JVM tem (Java 21+), senão num
+// pool de threads em cache. Há duas frentes com o mesmo protocolo de comandos:
+//   linhas no stdin, respondidas no stdout na ordem de chegada (com pipelining;
+//   load e drop esperam as consultas anteriores);
+//   HTTP local: GET /load?graph=g&file=f, /solve?graph=g&root=3&objective=max,
+//   /drop?graph=g e /stats.
+// Comandos de linha: load <grafo> <arquivo>, solve <grafo> <raiz|melhor|floresta>
+// [min|max], drop <grafo>, stats e quit. As respostas são uma linha JSON.
+final class BranchingService implements AutoCloseable {
+    private final long maxGraphSize; // Soma máxima de vértices + arestas no registro.
+    private final int maxGraphs; // Número máximo de grafos no registro.
+    private final int maxResults; // Resultados guardados por grafo.
+    private final int maxEngines; // Motores (consultas simultâneas sem cache) por grafo.
+    private final LinkedHashMap<String, Entry> graphs = new LinkedHashMap<>(16, 0.75f, true); // Registro em ordem de acesso.
+    private long graphSize; // Soma dos tamanhos (Entry.size()) dos grafos registrados.
+    private final AtomicLong nextVersion = new AtomicLong(1);
+    private final ExecutorService executor;
+    private final AtomicLong queries = new AtomicLong(); // Consultas respondidas.
+    private final AtomicLong hits = new AtomicLong(); // Consultas respondidas pelo cache.
+    private final AtomicLong evictions = new AtomicLong(); // Grafos retirados do registro por falta de espaço.
+
+    BranchingService(long maxGraphSize, int maxGraphs, int maxResults) {
+        this(maxGraphSize, maxGraphs, maxResults, Runtime.getRuntime().availableProcessors());
+    }
+
+    BranchingService(long maxGraphSize, int maxGraphs, int maxResults, int maxEngines) {
+        this.maxGraphSize = maxGraphSize;
+        this.maxGraphs = maxGraphs;
+        this.maxResults = maxResults;
+        this.maxEngines = maxEngines;
+        this.executor = newExecutor();
+    }
+
+    private static ExecutorService newExecutor() {
+        // Executors.newVirtualThreadPerTaskExecutor por reflexão, para compilar e rodar também no Java 17.
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "branching-service");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static final class Entry {
+        final CsrGraph graph;
+        final long version; // Versão da carga; entra na chave do cache.
+        final SuperRootBranching.Augmented augmented; // Grafos aumentados, compartilhados pelos motores.
+        final ConcurrentLinkedQueue<SuperRootBranching> engines = new ConcurrentLinkedQueue<>(); // Motores livres.
+        final Semaphore permits; // Um por motor; limita quantos o grafo chega a ter.
+        final LinkedHashMap<Key, SuperRootBranching.Result> results; // Cache LRU (acesso sincronizado na própria entrada).
+        // Campos abaixo: acesso com o lock do registro.
+        long engineSize; // Soma de SuperRootBranching.size() dos motores criados.
+        long extra; // Motores e grafos aumentados já somados em graphSize.
+        boolean registered; // Ainda está no registro (o tamanho conta em graphSize).
+
+        Entry(CsrGraph graph, long version, int maxResults, int maxEngines) {
+            this.graph = graph;
+            this.version = version;
+            this.augmented = new SuperRootBranching.Augmented(graph);
+            this.permits = new Semaphore(Math.max(1, maxEngines));
+            this.results = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, SuperRootBranching.Result> eldest) {
+                    return size() > maxResults;
+                }
+            };
+        }
+
+        long size() {
+            // Vértices + arestas do grafo, dos grafos aumentados e das áreas de trabalho dos motores.
+            return (long) graph.numVertices() + graph.numEdges() + extra;
+        }
+    }
+
+    private static final class Key {
+        final long version;
+        final Edmonds.Objective objective;
+        final Edmonds.RootMode mode;
+        final int root; // -1 fora do modo FIXED.
+
+        Key(long version, Edmonds.Objective objective, Edmonds.RootMode mode, int root) {
+            this.version = version;
+            this.objective = objective;
+            this.mode = mode;
+            this.root = mode == Edmonds.RootMode.FIXED ? root : -1;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return version == k.version && objective == k.objective && mode == k.mode && root == k.root;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(version, objective, mode, root);
+        }
+    }
+
+    long register(String name, CsrGraph graph) {
+        // Registra (ou substitui) o grafo e devolve a versão nova; retira os menos usados se faltar espaço.
+        Entry entry = new Entry(graph, nextVersion.getAndIncrement(), maxResults, maxEngines);
+        if (entry.size() > maxGraphSize) {
+            throw new IllegalArgumentException(name + ": grafo maior que o registro inteiro");
+        }
+        synchronized (graphs) {
+            Entry old = graphs.put(name, entry);
+            if (old != null) {
+                graphSize -= old.size();
+                old.registered = false;
+            }
+            entry.registered = true;
+            graphSize += entry.size();
+            evict(entry);
+        }
+        return entry.version;
+    }
+
+    private void evict(Entry keep) {
+        // Retira os menos usados, menos keep, até o registro caber nos limites; com o lock do registro.
+        Iterator<Map.Entry<String, Entry>> it = graphs.entrySet().iterator();
+        while ((graphSize > maxGraphSize || graphs.size() > maxGraphs) && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (eldest != keep) {
+                graphSize -= eldest.size();
+                eldest.registered = false;
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void grow(Entry entry, long engineGrowth) {
+        // Soma no registro os motores e grafos aumentados criados por uma consulta.
+        synchronized (graphs) {
+            entry.engineSize += engineGrowth;
+            long extra = entry.engineSize + entry.augmented.size();
+            if (extra == entry.extra) {
+                return;
+            }
+            if (entry.registered) {
+                graphSize += extra - entry.extra;
+            }
+            entry.extra = extra;
+            if (entry.registered) {
+                evict(entry);
+            }
+        }
+    }
+
+    long load(String name, String filePath) throws IOException {
+        // Lê o grafo (texto ou binário) e o registra.
+        CsrGraph graph = BinaryGraphFile.isBinary(filePath) ? BinaryGraphFile.load(filePath) : EdgeListLoader.load(filePath);
+        return register(name, graph);
+    }
+
+    boolean drop(String name) {
+        synchronized (graphs) {
+            Entry old = graphs.remove(name);
+            if (old != null) {
+                graphSize -= old.size();
+                old.registered = false;
+            }
+            return old != null;
+        }
+    }
+
+    SuperRootBranching.Result solve(String name, Edmonds.Objective objective, Edmonds.RootMode mode, int root) {
+        return solve(lookup(name), objective, mode, root);
+    }
+
+    private Entry lookup(String name) {
+        synchronized (graphs) {
+            Entry entry = graphs.get(name);
+            if (entry == null) {
+                throw new IllegalArgumentException(name + ": grafo não registrado");
+            }
+            return entry;
+        }
+    }
+
+    private SuperRootBranching.Result solve(Entry entry, Edmonds.Objective objective, Edmonds.RootMode mode, int root) {
+        // Responde pelo cache ou com um motor emprestado do grafo.
+        queries.incrementAndGet();
+        Key key = new Key(entry.version, objective, mode, root);
+        synchronized (entry) {
+            SuperRootBranching.Result cached = entry.results.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        SuperRootBranching.Result result;
+        long engineGrowth;
+        entry.permits.acquireUninterruptibly(); // Com todos os motores ocupados, espera um voltar.
+        try {
+            SuperRootBranching engine = entry.engines.poll();
+            if (engine == null) {
+                engine = new SuperRootBranching(entry.augmented, null); // A concorrência vem das consultas, não do motor.
+            }
+            long before = engine.size();
+            try {
+                result = engine.solve(objective, mode, root);
+            } finally {
+                engineGrowth = engine.size() - before;
+                entry.engines.offer(engine);
+            }
+        } finally {
+            entry.permits.release();
+        }
+        grow(entry, engineGrowth);
+        synchronized (entry) {
+            entry.results.put(key, result);
+        }
+        return result;
+    }
+
+    Future<String> submit(String command) {
+        // Executa o comando numa thread do serviço; a resposta é uma linha JSON.
+        return executor.submit(() -> execute(command));
+    }
+
+    String execute(String command) {
+        String[] args = command.trim().split("\\s+");
+        try {
+            switch (args[0]) {
+                case "load":
+                    return "{\"graph\":" + quote(args[1]) + ",\"version\":" + load(args[1], args[2]) + "}";
+                case "solve": {
+                    Edmonds.RootMode mode = args[2].equals("melhor") ? Edmonds.RootMode.BEST
+                            : args[2].equals("floresta") ? Edmonds.RootMode.FOREST : Edmonds.RootMode.FIXED;
+                    int root = mode == Edmonds.RootMode.FIXED ? Integer.parseInt(args[2]) : -1;
+                    Edmonds.Objective objective = Edmonds.Objective.valueOf(args.length > 3 ? args[3].toUpperCase() : "MIN");
+                    Entry entry = lookup(args[1]); // A mesma versão dá o resultado e os pais.
+                    return toJson(args[1], entry.graph, solve(entry, objective, mode, root));
+                }
+                case "drop":
+                    return "{\"graph\":" + quote(args[1]) + ",\"dropped\":" + drop(args[1]) + "}";
+                case "stats":
+                    return stats();
+                default:
+                    return error("comando desconhecido: " + args[0]);
+            }
+        } catch (IOException | RuntimeException e) {
+            return error(e instanceof ArrayIndexOutOfBoundsException ? "argumentos insuficientes" : String.valueOf(e.getMessage()));
+        }
+    }
+
+    String stats() {
+        synchronized (graphs) {
+            return "{\"graphs\":" + graphs.size() + ",\"graphSize\":" + graphSize + ",\"queries\":" + queries.get()
+                    + ",\"cacheHits\":" + hits.get() + ",\"evictions\":" + evictions.get() + "}";
+        }
+    }
+
+    private static String toJson(String name, CsrGraph graph, SuperRootBranching.Result result) {
+        // O pai de cada vértice (-1 nas raízes e nos inalcançáveis), as raízes e o custo.
+        StringBuilder out = new StringBuilder();
+        out.append("{\"graph\":").append(quote(name)).append(",\"cost\":").append(result.cost);
+        out.append(",\"roots\":").append(Arrays.toString(result.roots).replace(" ", ""));
+        out.append(",\"parent\":[");
+        for (int v = 0; v < result.parentEdge.length; v++) {
+            int e = result.parentEdge[v];
+            out.append(v == 0 ? "" : ",").append(e < 0 ? -1 : graph.source(e));
+        }
+        return out.append("]}").toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String text) {
+        // String JSON: aspas e barras escapadas, caracteres de controle como \\u00XX.
+        StringBuilder out = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    HttpServer serve(int port) throws IOException {
+        // Frente HTTP local: o caminho é o comando e os parâmetros da query, os argumentos.
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        return server;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        String command = exchange.getRequestURI().getPath().substring(1);
+        if (command.equals("load")) {
+            command += " " + params.get("graph") + " " + params.get("file");
+        } else if (command.equals("solve")) {
+            command += " " + params.get("graph") + " " + params.getOrDefault("root", "melhor") + " " + params.getOrDefault("objective", "min");
+        } else if (command.equals("drop")) {
+            command += " " + params.get("graph");
+        }
+        String response = execute(command);
+        byte[] body = (response + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.startsWith("{\"error\"") ? 400 : 200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    void serveLines(BufferedReader in, PrintStream out) throws IOException, InterruptedException {
+        // Frente de linhas: lê os comandos sem esperar as respostas e as escreve na ordem dos comandos.
+        BlockingQueue<Future<String>> pending = new LinkedBlockingQueue<>();
+        Future<String> end = executor.submit(() -> "");
+        Thread writer = new Thread(() -> {
+            try {
+                for (Future<String> f = pending.take(); f != end; f = pending.take()) {
+                    out.println(f.get());
+                }
+                out.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }, "branching-service-writer");
+        writer.start();
+        List<Future<String>> inFlight = new ArrayList<>(); // Consultas desde o último load/drop.
+        for (String line = in.readLine(); line != null && !line.trim().equals("quit"); line = in.readLine()) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (line.trim().startsWith("load") || line.trim().startsWith("drop")) {
+                // Barreira: as consultas anteriores terminam antes de o registro mudar.
+                for (Future<String> f : inFlight) {
+                    try {
+                        f.get();
+                    } catch (ExecutionException e) {
+                        // A resposta (ou o erro) sai pelo escritor.
+                    }
+                }
+                inFlight.clear();
+                pending.put(CompletableFuture.completedFuture(execute(line)));
+            } else {
+                Future<String> f = submit(line);
+                inFlight.add(f);
+                pending.put(f);
+            }
+        }
+        pending.put(end);
+        writer.join();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // Uso: java BranchingService [porta HTTP]; sem porta, lê os comandos do stdin.
+        // -Dedmonds.service.maxSize, .maxGraphs, .maxResults e .maxEngines ajustam os limites do registro,
+        // do cache e dos motores por grafo (padrão: um por processador).
+        long maxSize = Long.getLong("edmonds.service.maxSize", 200_000_000L);
+        int maxGraphs = Integer.getInteger("edmonds.service.maxGraphs", 64);
+        int maxResults = Integer.getInteger("edmonds.service.maxResults", 1024);
+        int maxEngines = Integer.getInteger("edmonds.service.maxEngines", Runtime.getRuntime().availableProcessors());
+        BranchingService service = new BranchingService(maxSize, maxGraphs, maxResults, maxEngines);
+        if (args.length > 0) {
+            HttpServer server = service.serve(Integer.parseInt(args[0]));
+            System.out.println("Servindo em http://127.0.0.1:" + server.getAddress().getPort() + "/");
+            return; // O servidor HTTP mantém a JVM viva.
+        }
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            service.serveLines(in, System.out);
+        } finally {
+            service.close();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Saída de branchings direto dos arrays de aresta de entrada dos motores, sem
+// List<Edge> nem println: os pares (pai, custo) são formatados num buffer
+// reaproveitado e gravados no canal quando ele enche.
+//
+// Formatos:
+//   TEXT:   o mesmo texto de antes ("Optimum Branching:" e uma linha
+//           "from -> to - Cost: c" por vértice com aresta de entrada), com as
+//           linhas avulsas (raízes, rótulos) intercaladas na ordem.
+//   BINARY: um bloco por branching, little-endian: magic "EDMR", versão,
+//           numVertices, raiz (-1 sem raiz fixa) e, para cada vértice, o pai
+//           (int32, -1 na raiz e nos inalcançáveis) e o custo da aresta (int64).
+//           As linhas avulsas não entram no binário.
+//
+// writeParents grava só o array de pais num arquivo próprio (magic "EDMP",
+// versão, numVertices, raiz e parent[numVertices] em int32), escrito e lido por
+// mapeamento de memória: outro processo abre com mapParents e lê parent[v] sem
+// copiar nem converter.
+final class BranchingSink implements Closeable {
+    static final int RESULT_MAGIC = 0x524D4445; // "EDMR" em little-endian.
+    static final int PARENTS_MAGIC = 0x504D4445; // "EDMP" em little-endian.
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16; // Tamanho dos cabeçalhos em bytes.
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_RECORD = 64; // Maior registro de texto ou binário, em bytes.
+    private static final byte[] HEADER = "Optimum Branching:\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EMPTY = "No optimum branching exists.\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ARROW = " -> ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] COST = " - Cost: ".getBytes(StandardCharsets.US_ASCII);
+
+    enum Format {
+        TEXT,
+        BINARY
+    }
+
+    private final FileChannel channel;
+    private final Format format;
+    private final boolean closeChannel; // false na saída padrão, que continua aberta depois do close().
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    private BranchingSink(FileChannel channel, Format format, boolean closeChannel) {
+        this.channel = channel;
+        this.format = format;
+        this.closeChannel = closeChannel;
+    }
+
+    static BranchingSink open(String filePath, Format format) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new BranchingSink(channel, format, true);
+    }
+
+    static BranchingSink stdout(Format format) {
+        // O que já estiver no System.out é descarregado antes, para manter a ordem.
+        System.out.flush();
+        return new BranchingSink(new FileOutputStream(FileDescriptor.out).getChannel(), format, false);
+    }
+
+    void line(String text) throws IOException {
+        // Linha avulsa; só no formato texto.
+        if (format == Format.TEXT) {
+            byte[] bytes = (text + "\n").getBytes(Charset.defaultCharset()); // Como o System.out.
+            ensure(bytes.length);
+            if (bytes.length > buffer.remaining()) {
+                write(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
+        }
+    }
+
+    void write(CsrGraph graph, int root, int[] parentEdge) throws IOException {
+        // parentEdge: aresta de entrada de cada vértice (-1 na raiz e nos inalcançáveis).
+        begin(parentEdge.length, root, hasEdge(parentEdge));
+        for (int v = 0; v < parentEdge.length; v++) {
+            int e = parentEdge[v];
+            record(v, e < 0 ? -1 : graph.source(e), e < 0 ? 0 : graph.longCost(e));
+        }
+    }
+
+    void write(ExternalEdgeFile file, int root, long[] parentEdge) throws IOException {
+        // Mesmo formato, com as arestas lidas do arquivo externo.
+        boolean any = false;
+        for (long e : parentEdge) {
+            any |= e >= 0;
+        }
+        begin(parentEdge.length, root, any);
+        for (int v = 0; v < parentEdge.length; v++) {
+            long e = parentEdge[v];
+            record(v, e < 0 ? -1 : file.source(e), e < 0 ? 0 : file.cost(e));
+        }
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (closeChannel) {
+            channel.close();
+        }
+    }
+
+    private void begin(int numVertices, int root, boolean any) throws IOException {
+        ensure(HEADER_SIZE + EMPTY.length);
+        if (format == Format.BINARY) {
+            buffer.putInt(RESULT_MAGIC).putInt(VERSION).putInt(numVertices).putInt(root);
+        } else {
+            buffer.put(any ? HEADER : EMPTY);
+        }
+    }
+
+    private void record(int v, int parent, long cost) throws IOException {
+        ensure(MAX_RECORD);
+        if (format == Format.BINARY) {
+            buffer.putInt(parent).putLong(cost);
+        } else if (parent >= 0) {
+            appendLong(parent);
+            buffer.put(ARROW);
+            appendLong(v);
+            buffer.put(COST);
+            appendLong(cost);
+            buffer.put((byte) '\n');
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void appendLong(long value) {
+        // Escreve value em decimal no buffer, sem criar String.
+        if (value < 0) {
+            buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                buffer.put("9223372036854775808".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            value = -value;
+        }
+        int digits = 1;
+        for (long p = 10; p <= value && digits < 19; p *= 10) {
+            digits++;
+        }
+        int pos = buffer.position();
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(pos + digits);
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private static boolean hasEdge(int[] parentEdge) {
+        for (int e : parentEdge) {
+            if (e >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void writeParents(String filePath, CsrGraph graph, int root, int[] parentEdge) throws IOException {
+        // Grava o array de pais por mapeamento de memória (-1 na raiz e nos inalcançáveis).
+        IntBuffer parents = mapForWrite(filePath, parentEdge.length, root);
+        for (int v = 0; v < parentEdge.length; v++) {
+            parents.put(v, parentEdge[v] < 0 ? -1 : graph.source(parentEdge[v]));
+        }
+    }
+
+    static void writeParents(String filePath, ExternalEdgeFile file, int root, long[] parentEdge) throws IOException {
+        IntBuffer parents = mapForWrite(filePath, parentEdge.length, root);
+        for (int v = 0; v < parentEdge.length; v++) {
+            parents.put(v, parentEdge[v] < 0 ? -1 : file.source(parentEdge[v]));
+        }
+    }
+
+    static IntBuffer mapParents(String filePath) throws IOException {
+        // Mapeia o array de pais gravado por writeParents, só para leitura; parent[v] = get(v).
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException(filePath + ": arquivo de pais truncado");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != PARENTS_MAGIC) {
+                throw new IOException(filePath + ": não é um arquivo de pais");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(filePath + ": versão " + header.getInt(4) + " não suportada");
+            }
+            long expected = HEADER_SIZE + 4L * header.getInt(8);
+            if (header.getInt(8) < 0 || channel.size() != expected) {
+                throw new IOException(filePath + ": tamanho " + channel.size() + " não confere com o cabeçalho (esperado " + expected + ")");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, expected - HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+    }
+
+    static int parentsRoot(String filePath) throws IOException {
+        // Raiz gravada no cabeçalho do arquivo de pais (-1 sem raiz fixa).
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN).getInt(12);
+        }
+    }
+
+    private static IntBuffer mapForWrite(String filePath, int numVertices, int root) throws IOException {
+        long bytes = HEADER_SIZE + 4L * numVertices;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException(filePath + ": " + bytes + " bytes excedem o limite de mapeamento");
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            map.putInt(0, PARENTS_MAGIC).putInt(4, VERSION).putInt(8, numVertices).putInt(12, root);
+            return map.position(HEADER_SIZE).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+// Grafo em formato CSR (compressed sparse row) com seções primitivas paralelas.
+// As arestas são numeradas na ordem do CSR de saída; o índice reverso
+// (arestas de entrada) guarda apenas os números das arestas.
+// As seções são IntBuffers: arrays comuns embrulhados ou regiões de um
+// arquivo binário mapeado em memória (veja BinaryGraphFile).
+final class CsrGraph {
+    private final int numVertices; // Número de vértices no grafo.
+    private final int numEdges; // Número de arestas no grafo.
+    private final IntBuffer offsets; // Arestas de saída de v ficam em [offsets[v], offsets[v + 1]).
+    private final IntBuffer sources; // Origem de cada aresta.
+    private final IntBuffer targets; // Destino de cada aresta.
+    private final IntBuffer costs; // Custo de cada aresta (null se os custos são de 64 bits).
+    private final LongBuffer longCosts; // Custos de 64 bits (null se os custos cabem em int).
+    private final IntBuffer inOffsets; // Arestas de entrada de v ficam em inEdges[inOffsets[v] .. inOffsets[v + 1]).
+    private final IntBuffer inEdges; // Índices das arestas, agrupados por destino.
+
+    CsrGraph(int numVertices, int numEdges, IntBuffer offsets, IntBuffer sources, IntBuffer targets, IntBuffer costs,
+             IntBuffer inOffsets, IntBuffer inEdges) {
+        this(numVertices, numEdges, offsets, sources, targets, costs, null, inOffsets, inEdges);
+    }
+
+    CsrGraph(int numVertices, int numEdges, IntBuffer offsets, IntBuffer sources, IntBuffer targets, LongBuffer longCosts,
+             IntBuffer inOffsets, IntBuffer inEdges) {
+        this(numVertices, numEdges, offsets, sources, targets, null, longCosts, inOffsets, inEdges);
+    }
+
+    private CsrGraph(int numVertices, int numEdges, IntBuffer offsets, IntBuffer sources, IntBuffer targets, IntBuffer costs,
+                     LongBuffer longCosts, IntBuffer inOffsets, IntBuffer inEdges) {
+        this.numVertices = numVertices;
+        this.numEdges = numEdges;
+        this.offsets = offsets;
+        this.sources = sources;
+        this.targets = targets;
+        this.costs = costs;
+        this.longCosts = longCosts;
+        this.inOffsets = inOffsets;
+        this.inEdges = inEdges;
+    }
+
+    private static CsrGraph fromArrays(int numVertices, int[] offsets, int[] sources, int[] targets, int[] costs) {
+        return fromArrays(numVertices, offsets, sources, targets, costs, null);
+    }
+
+    private static CsrGraph fromArrays(int numVertices, int[] offsets, int[] sources, int[] targets, int[] costs,
+                                       long[] longCosts) {
+        // Monta o índice reverso e embrulha os arrays.
+        int numEdges = targets.length;
+        int[] inOffsets = new int[numVertices + 1];
+        int[] inEdges = new int[numEdges];
+        for (int e = 0; e < numEdges; e++) {
+            inOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] next = Arrays.copyOf(inOffsets, numVertices);
+        for (int e = 0; e < numEdges; e++) {
+            inEdges[next[targets[e]]++] = e;
+        }
+        if (longCosts != null) {
+            return new CsrGraph(numVertices, numEdges, IntBuffer.wrap(offsets), IntBuffer.wrap(sources), IntBuffer.wrap(targets),
+                    LongBuffer.wrap(longCosts), IntBuffer.wrap(inOffsets), IntBuffer.wrap(inEdges));
+        }
+        return new CsrGraph(numVertices, numEdges, IntBuffer.wrap(offsets), IntBuffer.wrap(sources), IntBuffer.wrap(targets),
+                IntBuffer.wrap(costs), IntBuffer.wrap(inOffsets), IntBuffer.wrap(inEdges));
+    }
+
+    static CsrGraph fromEdges(int numVertices, int[] from, int[] to, int[] cost) {
+        // Alarga os custos e usa a versão de 64 bits (que volta a guardá-los em int).
+        long[] longCost = new long[cost.length];
+        for (int e = 0; e < cost.length; e++) {
+            longCost[e] = cost[e];
+        }
+        return fromEdges(numVertices, from, to, longCost);
+    }
+
+    static CsrGraph fromEdges(int numVertices, int[] from, int[] to, long[] cost) {
+        // Monta o CSR a partir de uma lista de arestas (ordenação por contagem, estável).
+        int numEdges = from.length;
+        int[] offsets = new int[numVertices + 1];
+        for (int e = 0; e < numEdges; e++) {
+            offsets[from[e] + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] sources = new int[numEdges];
+        int[] targets = new int[numEdges];
+        long[] costs = new long[numEdges];
+        int[] next = Arrays.copyOf(offsets, numVertices);
+        for (int e = 0; e < numEdges; e++) {
+            int i = next[from[e]]++;
+            sources[i] = from[e];
+            targets[i] = to[e];
+            costs[i] = cost[e];
+        }
+        return fromLongCosts(numVertices, offsets, sources, targets, costs);
+    }
+
+    static CsrGraph fromAdjacency(List<List<Edmonds.Edge>> graph) {
+        // Converte a representação antiga (lista de listas de arestas).
+        int numVertices = graph.size();
+        int[] offsets = new int[numVertices + 1];
+        for (int u = 0; u < numVertices; u++) {
+            offsets[u + 1] = offsets[u] + graph.get(u).size();
+        }
+        int numEdges = offsets[numVertices];
+        int[] sources = new int[numEdges];
+        int[] targets = new int[numEdges];
+        long[] longCosts = new long[numEdges];
+        int e = 0;
+        for (int u = 0; u < numVertices; u++) {
+            for (Edmonds.Edge edge : graph.get(u)) {
+                sources[e] = u;
+                targets[e] = edge.to;
+                longCosts[e] = edge.cost;
+                e++;
+            }
+        }
+        return fromLongCosts(numVertices, offsets, sources, targets, longCosts);
+    }
+
+    private static CsrGraph fromLongCosts(int numVertices, int[] offsets, int[] sources, int[] targets, long[] longCosts) {
+        // Guarda os custos em int quando todos cabem, senão em long.
+        int[] costs = new int[longCosts.length];
+        for (int e = 0; e < longCosts.length; e++) {
+            if (longCosts[e] != (int) longCosts[e]) {
+                return fromArrays(numVertices, offsets, sources, targets, null, longCosts);
+            }
+            costs[e] = (int) longCosts[e];
+        }
+        return fromArrays(numVertices, offsets, sources, targets, costs);
+    }
+
+    int numVertices() {
+        return numVertices;
+    }
+
+    int numEdges() {
+        return numEdges;
+    }
+
+    int firstOutEdge(int v) {
+        return offsets.get(v);
+    }
+
+    int endOutEdge(int v) {
+        return offsets.get(v + 1);
+    }
+
+    int firstInIndex(int v) {
+        return inOffsets.get(v);
+    }
+
+    int endInIndex(int v) {
+        return inOffsets.get(v + 1);
+    }
+
+    int inEdge(int i) {
+        return inEdges.get(i);
+    }
+
+    int source(int e) {
+        return sources.get(e);
+    }
+
+    int target(int e) {
+        return targets.get(e);
+    }
+
+    int cost(int e) {
+        return costs != null ? costs.get(e) : Math.toIntExact(longCosts.get(e));
+    }
+
+    long longCost(int e) {
+        // Custo com 64 bits; é o que os algoritmos usam nas chaves dos heaps.
+        return costs != null ? costs.get(e) : longCosts.get(e);
+    }
+
+    IntBuffer[] sections() {
+        // Seções na ordem em que aparecem no arquivo binário.
+        if (costs == null) {
+            throw new IllegalStateException("custos de 64 bits não cabem no formato binário");
+        }
+        return new IntBuffer[] {offsets.duplicate(), sources.duplicate(), targets.duplicate(), costs.duplicate(),
+                inOffsets.duplicate(), inEdges.duplicate()};
+    }
+}
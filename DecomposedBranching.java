@@ -0,0 +1,137 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Branching ótimo resolvido componente por componente.
+//
+// As componentes fortemente conexas são calculadas uma vez, em paralelo, e a
+// contração de ciclos só acontece dentro de cada uma. Cada componente C é um
+// problema independente: uma raiz virtual entra em cada vértice v de C pela
+// aresta externa mais barata que chega em v vinda de um vértice alcançável (veja
+// DynamicBranching). As componentes são resolvidas em paralelo e as arestas
+// escolhidas, juntas, formam o branching do grafo inteiro.
+final class DecomposedBranching {
+    private final CsrGraph graph; // Grafo de entrada.
+    private final int numVertices; // Número de vértices no grafo.
+    private final ForkJoinPool pool; // Pool das fases paralelas (null = sequencial).
+    private final ParallelStronglyConnectedComponents scc;
+    private final int[] memberOffsets; // Membros da componente c em members[memberOffsets[c] .. memberOffsets[c + 1]).
+    private final int[] members;
+
+    DecomposedBranching(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.numVertices = graph.numVertices();
+        this.pool = pool;
+        this.scc = new ParallelStronglyConnectedComponents(graph, pool);
+        int count = scc.count();
+        this.memberOffsets = new int[count + 1];
+        for (int v = 0; v < numVertices; v++) {
+            memberOffsets[scc.component(v) + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        this.members = new int[numVertices];
+        int[] next = Arrays.copyOf(memberOffsets, count);
+        for (int v = 0; v < numVertices; v++) {
+            members[next[scc.component(v)]++] = v; // Em ordem crescente dentro de cada componente.
+        }
+    }
+
+    int[] solve(int root) {
+        // Mesmo contrato de OptimumBranching.solve.
+        int count = scc.count();
+        boolean[] reachable = new boolean[count]; // Alcançabilidade pelo DAG de condensação.
+        int[] stack = new int[count];
+        int top = 0;
+        reachable[scc.component(root)] = true;
+        stack[top++] = scc.component(root);
+        while (top > 0) {
+            int c = stack[--top];
+            for (int i = scc.firstSuccessor(c); i < scc.endSuccessor(c); i++) {
+                int d = scc.successor(i);
+                if (!reachable[d]) {
+                    reachable[d] = true;
+                    stack[top++] = d;
+                }
+            }
+        }
+
+        int[] parentEdge = new int[numVertices];
+        Arrays.fill(parentEdge, -1);
+        OptimumBranching.parallelFor(pool, count, c -> {
+            if (reachable[c]) {
+                solveComponent(c, root, reachable, parentEdge);
+            }
+        });
+        return parentEdge;
+    }
+
+    private void solveComponent(int c, int root, boolean[] reachable, int[] parentEdge) {
+        int start = memberOffsets[c];
+        int size = memberOffsets[c + 1] - start;
+        boolean rootComponent = scc.component(root) == c;
+        if (size == 1) {
+            // Componente trivial: a aresta externa mais barata (desempate pelo índice, como no heap).
+            int v = members[start];
+            if (!rootComponent) {
+                parentEdge[v] = bestExternal(v, c, reachable);
+            }
+            return;
+        }
+
+        // Índice local: 0 é a raiz virtual, os membros vêm depois, na ordem de members.
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int v = members[start + i];
+            count += graph.endInIndex(v) - graph.firstInIndex(v);
+        }
+        int[] from = new int[count + size];
+        int[] to = new int[count + size];
+        long[] cost = new long[count + size];
+        int[] globalEdge = new int[count + size]; // Aresta original de cada aresta local (-1 = raiz virtual).
+        int m = 0;
+        for (int i = 0; i < size; i++) {
+            int v = members[start + i];
+            int best = rootComponent ? -1 : bestExternal(v, c, reachable);
+            if (rootComponent ? v != root : best < 0) {
+                continue; // Na componente da raiz, só a própria raiz é ligada à raiz virtual.
+            }
+            to[m] = i + 1;
+            cost[m] = best < 0 ? 0 : graph.longCost(best);
+            globalEdge[m++] = best;
+        }
+        for (int i = 0; i < size; i++) {
+            int u = members[start + i];
+            for (int e = graph.firstOutEdge(u); e < graph.endOutEdge(u); e++) {
+                int v = graph.target(e);
+                if (v != u && scc.component(v) == c) {
+                    from[m] = i + 1;
+                    to[m] = 1 + Arrays.binarySearch(members, start, start + size, v) - start;
+                    cost[m] = graph.longCost(e);
+                    globalEdge[m++] = e;
+                }
+            }
+        }
+        // As arestas já estão ordenadas pela origem local, então o CSR mantém a numeração.
+        CsrGraph sub = CsrGraph.fromEdges(size + 1, Arrays.copyOf(from, m), Arrays.copyOf(to, m), Arrays.copyOf(cost, m));
+        int[] localParent = new OptimumBranching(sub).solve(0);
+        for (int i = 0; i < size; i++) {
+            int e = localParent[i + 1];
+            parentEdge[members[start + i]] = e < 0 ? -1 : globalEdge[e];
+        }
+    }
+
+    private int bestExternal(int v, int c, boolean[] reachable) {
+        // Aresta mais barata que entra em v vinda de outra componente alcançável.
+        int best = -1;
+        for (int i = graph.firstInIndex(v); i < graph.endInIndex(v); i++) {
+            int e = graph.inEdge(i);
+            int d = scc.component(graph.source(e));
+            if (d != c && reachable[d]
+                    && (best < 0 || graph.longCost(e) < graph.longCost(best) || (graph.longCost(e) == graph.longCost(best) && e < best))) {
+                best = e;
+            }
+        }
+        return best;
+    }
+}
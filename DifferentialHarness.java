@@ -0,0 +1,189 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Teste diferencial aleatório entre as implementações, com o certificado dual
+// como oráculo: o motor resolve com certificado e BranchingCertificate.check
+// prova a otimalidade; as outras implementações do mesmo problema (Edmonds,
+// MultiRootBranching, DecomposedBranching, DynamicBranching, SuperRootBranching
+// e ExternalBranching) precisam dar uma arborescência válida com o mesmo custo.
+// O verificador também é testado: uma aresta trocada por outra mais cara tem
+// que ser recusada.
+//
+// Edmonds2 e Edmonds3 resolvem outro problema (raiz fixa em 0 / maiores arestas)
+// e podem entrar em laço, então rodam com um SolveBudget de 500 ms e o resumo conta
+// os resultados, exceções e orçamentos esgotados. Por segurança elas ainda
+// rodam numa thread à parte: uma implementação que passa muito do prazo (um
+// laço sem verificação do orçamento) não roda mais, porque a thread presa não
+// pode ser interrompida.
+final class DifferentialHarness {
+    private DifferentialHarness() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // Uso: java DifferentialHarness [iterações] [vértices máx.] [semente]
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int maxVertices = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        SplittableRandom random = new SplittableRandom(seed);
+        ExecutorService legacy = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "differential-legacy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long[][] legacyCounts = new long[2][4]; // Edmonds2 e Edmonds3: {ok, exceção, orçamento esgotado, presa}.
+        Path text = Files.createTempFile("differential", ".txt");
+        Path external = Files.createTempFile("differential", ".edmx");
+        int failures = 0;
+        try {
+            for (int it = 0; it < iterations; it++) {
+                long graphSeed = random.nextLong();
+                int numVertices = 1 + random.nextInt(maxVertices);
+                int numEdges = random.nextInt(4 * numVertices + 1);
+                CsrGraph graph = random.nextBoolean() ? GraphGenerator.uniform(numVertices, numEdges, graphSeed)
+                        : GraphGenerator.cycleHeavy(Math.max(1, numEdges), graphSeed);
+                int root = random.nextInt(graph.numVertices());
+                try {
+                    compare(graph, root, text, external);
+                } catch (IllegalStateException | ArithmeticException e) {
+                    failures++;
+                    System.out.println("Falha na iteração " + it + " (semente " + graphSeed + ", raiz " + root + "): " + e.getMessage());
+                }
+                runLegacy(legacy, legacyCounts, graph);
+            }
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(external);
+            legacy.shutdownNow();
+        }
+        System.out.println(iterations + " grafos, " + failures + " falhas");
+        String[] names = {"Edmonds2", "Edmonds3"};
+        for (int i = 0; i < 2; i++) {
+            System.out.println(names[i] + ": " + legacyCounts[i][0] + " terminaram, " + legacyCounts[i][1] + " exceções, "
+                    + legacyCounts[i][2] + " orçamentos esgotados, " + legacyCounts[i][3] + " presas");
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void compare(CsrGraph graph, int root, Path text, Path external) throws IOException {
+        // Lança IllegalStateException na primeira divergência.
+        OptimumBranching engine = new OptimumBranching(graph);
+        BranchingCertificate certificate = new BranchingCertificate();
+        int[] optimum = engine.solve(root, certificate);
+        BranchingCertificate.check(graph, root, optimum, certificate);
+        long cost = certificate.dualValue();
+
+        expect("Edmonds", graph, root, cost, edgesOf(graph, new Edmonds(graph).findOptimumBranching(root)));
+        expect("MultiRootBranching", graph, root, cost, new MultiRootBranching(graph).solveAll(new int[] {root})[0]);
+        expect("DecomposedBranching", graph, root, cost, new DecomposedBranching(graph, null).solve(root));
+        DynamicBranching dynamic = new DynamicBranching(graph, root);
+        int[] parentEdge = new int[graph.numVertices()];
+        for (int v = 0; v < parentEdge.length; v++) {
+            parentEdge[v] = dynamic.parentEdge(v);
+        }
+        expect("DynamicBranching", graph, root, cost, parentEdge);
+        SuperRootBranching.Result fixed = new SuperRootBranching(graph, null).solve(Edmonds.Objective.MIN, Edmonds.RootMode.FIXED, root);
+        expect("SuperRootBranching", graph, root, cost, fixed.parentEdge);
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(text))) {
+            out.println(graph.numVertices() + " " + graph.numEdges());
+            for (int e = 0; e < graph.numEdges(); e++) {
+                out.println(graph.source(e) + " " + graph.target(e) + " " + graph.cost(e));
+            }
+        }
+        ExternalEdgeFile.convert(text.toString(), external.toString());
+        try (ExternalEdgeFile file = ExternalEdgeFile.open(external.toString())) {
+            long[] longParent = new ExternalBranching(file).solve(root);
+            for (int v = 0; v < parentEdge.length; v++) {
+                parentEdge[v] = (int) longParent[v]; // O arquivo mantém a ordem do CSR.
+            }
+        }
+        expect("ExternalBranching", graph, root, cost, parentEdge);
+
+        // O verificador precisa recusar um resultado piorado.
+        for (int v = 0; v < optimum.length; v++) {
+            if (optimum[v] < 0) {
+                continue;
+            }
+            for (int i = graph.firstInIndex(v); i < graph.endInIndex(v); i++) {
+                int e = graph.inEdge(i);
+                if (graph.longCost(e) > graph.longCost(optimum[v]) && graph.source(e) != v) {
+                    int[] worse = optimum.clone();
+                    worse[v] = e;
+                    try {
+                        BranchingCertificate.check(graph, root, worse, certificate);
+                    } catch (IllegalStateException expected) {
+                        return;
+                    }
+                    throw new IllegalStateException("o verificador aceitou um resultado piorado no vértice " + v);
+                }
+            }
+        }
+    }
+
+    private static void expect(String name, CsrGraph graph, int root, long cost, int[] parentEdge) {
+        try {
+            BranchingCertificate.check(graph, root, parentEdge, null);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException(name + ": " + e.getMessage());
+        }
+        long found = 0;
+        for (int e : parentEdge) {
+            found += e < 0 ? 0 : graph.longCost(e);
+        }
+        if (found != cost) {
+            throw new IllegalStateException(name + ": custo " + found + ", ótimo " + cost);
+        }
+    }
+
+    private static int[] edgesOf(CsrGraph graph, List<Edmonds.Edge> edges) {
+        // Volta das arestas de Edmonds para os índices: a mais barata de from -> to com o mesmo custo.
+        int[] parentEdge = new int[graph.numVertices()];
+        Arrays.fill(parentEdge, -1);
+        for (Edmonds.Edge edge : edges) {
+            for (int e = graph.firstOutEdge(edge.from); e < graph.endOutEdge(edge.from); e++) {
+                if (graph.target(e) == edge.to && graph.longCost(e) == edge.cost) {
+                    parentEdge[edge.to] = e;
+                    break;
+                }
+            }
+        }
+        return parentEdge;
+    }
+
+    private static void runLegacy(ExecutorService legacy, long[][] counts, CsrGraph graph) throws InterruptedException {
+        // Edmonds2 e Edmonds3 com orçamento de tempo; só contam para o resumo.
+        SolveBudget[] budgets = {SolveBudget.withTimeout(TimeUnit.MILLISECONDS.toNanos(500)), SolveBudget.withTimeout(TimeUnit.MILLISECONDS.toNanos(500))};
+        List<Callable<Object>> runs = List.of(() -> Edmonds2.branchAndRoot(graph, budgets[0]),
+                () -> Edmonds3.branchAlgorithm(Edmonds3.fromCsr(graph), null, budgets[1]));
+        for (int i = 0; i < runs.size(); i++) {
+            if (counts[i][3] > 0) {
+                continue; // Uma thread já ficou presa nesta implementação.
+            }
+            Future<Object> run = legacy.submit(runs.get(i));
+            try {
+                run.get(10, TimeUnit.SECONDS);
+                counts[i][budgets[i].isExhausted() ? 2 : 0]++;
+            } catch (ExecutionException e) {
+                counts[i][1]++;
+            } catch (TimeoutException e) {
+                budgets[i].cancel();
+                run.cancel(true);
+                counts[i][3]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+// Floresta de conjuntos disjuntos (union-find) com compressão de caminho e
+// união por posto, sobre arrays primitivos. Usada para as componentes de raízes
+// do Edmonds3 e para os branchings parciais do Edmonds2 e do Edmonds3.
+final class DisjointSet {
+    private final int[] parent; // Pai de cada elemento; a raiz aponta para si mesma.
+    private final byte[] rank; // Limite superior da altura de cada raiz.
+
+    DisjointSet(int n) {
+        this.parent = new int[n];
+        this.rank = new byte[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+    }
+
+    int size() {
+        return parent.length;
+    }
+
+    int find(int x) {
+        int root = x;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[x] != root) {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    int union(int a, int b) {
+        // Une os conjuntos de a e b e devolve a nova raiz.
+        a = find(a);
+        b = find(b);
+        if (a == b) {
+            return a;
+        }
+        if (rank[a] < rank[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        parent[b] = a;
+        if (rank[a] == rank[b]) {
+            rank[a]++;
+        }
+        return a;
+    }
+}
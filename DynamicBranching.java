@@ -0,0 +1,751 @@
+import java.util.Arrays;
+
+// Branching ótimo mantido sob inserção, remoção e mudança de custo de arestas.
+//
+// O problema se decompõe exatamente pelas componentes fortemente conexas: as
+// arestas entre componentes seguem a ordem do DAG de condensação e nunca fecham
+// ciclos, então cada componente C pode ser resolvida sozinha, com uma raiz
+// virtual cujas arestas para v custam o mínimo das arestas externas que entram
+// em v vindas de vértices alcançáveis. A soma das soluções é o ótimo global.
+//
+// As alterações são acumuladas e aplicadas em lote por commit(). Alterações que
+// não podem mudar o ótimo (remover ou encarecer uma aresta fora da árvore) não
+// sujam nada; as demais sujam a componente do destino, e só as componentes
+// sujas (mais as que se dividiram, juntaram ou mudaram de alcançabilidade) são
+// resolvidas de novo. commit() devolve a diferença da arborescência.
+//
+// As componentes e a alcançabilidade são mantidas direto nas listas de
+// adjacência, sem CSR nem passada sobre o grafo inteiro por lote:
+//   cada componente tem um intervalo [key, limit) de chaves, e a ordem das
+//   chaves é topológica. Uma aresta nova entre componentes que contraria a ordem
+//   é tratada à Pearce-Kelly: só as componentes entre as duas chaves são
+//   percorridas e reordenadas, e um ciclo funde as componentes do caminho;
+//   remover uma aresta interna refaz o Tarjan só dentro da componente dela, e as
+//   partes repartem o intervalo (quando não cabem, todas são renumeradas);
+//   remover uma aresta da árvore só reexamina a subárvore pendurada nela (fora
+//   do commit, alcançável é o mesmo que estar na árvore), e uma aresta nova só
+//   propaga alcance a partir do destino.
+// Os arrays de trabalho são alocados uma vez; por lote só se aloca o que é
+// proporcional às componentes resolvidas e à diferença devolvida.
+final class DynamicBranching {
+    private final int numVertices; // Número de vértices no grafo (fixo).
+    private final int root; // Raiz do branching.
+    private int numEdges; // Arestas já criadas, vivas ou não; os números não são reaproveitados.
+    private int[] from = new int[16]; // Origem de cada aresta.
+    private int[] to = new int[16]; // Destino de cada aresta.
+    private long[] cost = new long[16]; // Custo de cada aresta.
+    private boolean[] alive = new boolean[16]; // A aresta ainda existe.
+    private boolean[] pending = new boolean[16]; // Aresta nova que o commit ainda não pôs na ordem das componentes.
+    private final int[][] outEdges; // Arestas vivas que saem de cada vértice.
+    private final int[] outCount;
+    private final int[][] inEdges; // Arestas vivas que entram em cada vértice.
+    private final int[] inCount;
+
+    private final int[] parentEdge; // Aresta de entrada de cada vértice no branching (-1 na raiz e nos inalcançáveis).
+    private final boolean[] reachable; // Alcançabilidade a partir da raiz.
+
+    // Componentes: listas encadeadas de vértices, numeradas de 0 a numVertices - 1.
+    private final int[] component; // Componente de cada vértice.
+    private final int[] nextMember; // Próximo vértice da mesma componente (-1 no último).
+    private final int[] head; // Primeiro vértice de cada componente.
+    private final int[] size; // Número de vértices de cada componente (0 = número livre).
+    private final long[] key; // Início do intervalo de cada componente; toda aresta entre componentes sobe de chave.
+    private final long[] limit; // Fim (exclusivo) do intervalo de cada componente.
+    private final int[] freeComponents; // Números de componente livres.
+    private int freeCount;
+
+    // Alterações desde o último commit.
+    private final boolean[] dirty; // Vértices cuja vizinhança de entrada mudou (ou cuja componente é nova).
+    private final int[] dirtyList;
+    private int dirtyCount;
+    private int[] inserted = new int[16]; // Arestas criadas por addEdge.
+    private int insertedCount;
+    private final boolean[] splitCandidate; // Componentes que perderam uma aresta interna.
+    private final int[] splitList;
+    private int splitCount;
+
+    // Área de trabalho do commit.
+    private final int[] stack; // Pilha das buscas (de vértices ou de componentes) e de chamadas do Tarjan.
+    private final int[] members; // Membros da componente sendo dividida ou resolvida.
+    private final int[] local; // Índice local de cada vértice na componente resolvida (1 .. tamanho).
+    private final int[] index; // Tarjan: ordem de descoberta (-1 = não visitado).
+    private final int[] low;
+    private final int[] edgePos; // Tarjan: próxima aresta de saída a examinar.
+    private final int[] tarjanStack;
+    private final boolean[] onStack;
+    private final int[] order; // Tarjan: vértices agrupados pela componente, na ordem em que saem.
+    private final boolean[] forward; // Pearce-Kelly: componentes alcançadas para frente e para trás.
+    private final boolean[] backward;
+    private final int[] forwardList;
+    private final int[] backwardList;
+    private final int[] sorted; // Componentes da janela em ordem de chave.
+    private final long[] sortKeys;
+    private final int[] sortTmp;
+    private final long[] poolKey; // Intervalos das componentes da janela, em ordem.
+    private final long[] poolLimit;
+    private final boolean[] lost; // Vértices da subárvore de uma aresta da árvore removida.
+    private final int[] lostList;
+    private final int[] gainedList; // Vértices que passaram a ser alcançáveis.
+    private final boolean[] resolve; // Componentes a resolver.
+    private final int[] resolveList;
+    private final int[] changed; // Diferença do commit.
+    private final int[] oldEdges;
+    private final int[] newEdges;
+
+    DynamicBranching(CsrGraph graph, int root) {
+        // As arestas do grafo inicial mantêm seus números (0 .. numEdges - 1).
+        this.numVertices = graph.numVertices();
+        this.root = root;
+        this.outEdges = new int[numVertices][];
+        this.outCount = new int[numVertices];
+        this.inEdges = new int[numVertices][];
+        this.inCount = new int[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            outEdges[v] = new int[Math.max(1, graph.endOutEdge(v) - graph.firstOutEdge(v))];
+            inEdges[v] = new int[Math.max(1, graph.endInIndex(v) - graph.firstInIndex(v))];
+        }
+        for (int e = 0; e < graph.numEdges(); e++) {
+            insert(graph.source(e), graph.target(e), graph.longCost(e));
+        }
+        this.parentEdge = new int[numVertices];
+        this.reachable = new boolean[numVertices];
+        this.component = new int[numVertices];
+        this.nextMember = new int[numVertices];
+        this.head = new int[numVertices];
+        this.size = new int[numVertices];
+        this.key = new long[numVertices];
+        this.limit = new long[numVertices];
+        this.freeComponents = new int[numVertices];
+        this.dirty = new boolean[numVertices];
+        this.dirtyList = new int[numVertices];
+        this.splitCandidate = new boolean[numVertices];
+        this.splitList = new int[numVertices];
+        this.stack = new int[numVertices];
+        this.members = new int[numVertices];
+        this.local = new int[numVertices];
+        this.index = new int[numVertices];
+        this.low = new int[numVertices];
+        this.edgePos = new int[numVertices];
+        this.tarjanStack = new int[numVertices];
+        this.onStack = new boolean[numVertices];
+        this.order = new int[numVertices];
+        this.forward = new boolean[numVertices];
+        this.backward = new boolean[numVertices];
+        this.forwardList = new int[numVertices];
+        this.backwardList = new int[numVertices];
+        this.sorted = new int[numVertices];
+        this.sortKeys = new long[numVertices];
+        this.sortTmp = new int[numVertices];
+        this.poolKey = new long[numVertices];
+        this.poolLimit = new long[numVertices];
+        this.lost = new boolean[numVertices];
+        this.lostList = new int[numVertices];
+        this.gainedList = new int[numVertices];
+        this.resolve = new boolean[numVertices];
+        this.resolveList = new int[numVertices];
+        this.changed = new int[numVertices];
+        this.oldEdges = new int[numVertices];
+        this.newEdges = new int[numVertices];
+        Arrays.fill(parentEdge, -1);
+
+        // Componentes e alcance iniciais: a única passada sobre o grafo inteiro.
+        int[] offsets = new int[numVertices + 1];
+        int[] targets = new int[graph.numEdges()];
+        for (int v = 0; v < numVertices; v++) {
+            offsets[v + 1] = graph.endOutEdge(v);
+        }
+        for (int e = 0; e < targets.length; e++) {
+            targets[e] = graph.target(e);
+        }
+        StronglyConnectedComponents scc = new StronglyConnectedComponents(numVertices, offsets, targets);
+        Arrays.fill(head, -1);
+        for (int v = numVertices - 1; v >= 0; v--) {
+            int c = scc.component(v);
+            component[v] = c;
+            nextMember[v] = head[c];
+            head[c] = v;
+            size[c]++;
+        }
+        long gap = Long.MAX_VALUE / (scc.count() + 1);
+        for (int c = 0; c < scc.count(); c++) {
+            key[c] = (scc.count() - 1 - c) * gap; // O Tarjan numera em ordem topológica reversa.
+            limit[c] = key[c] + gap;
+        }
+        for (int c = numVertices - 1; c >= scc.count(); c--) {
+            freeComponents[freeCount++] = c;
+        }
+        if (numVertices > 0) {
+            reachable[root] = true;
+            stack[0] = root;
+            propagateReach(1, 0);
+        }
+        for (int v = 0; v < numVertices; v++) {
+            markDirty(v); // Na primeira vez, tudo é resolvido.
+        }
+        commit();
+    }
+
+    int addEdge(int u, int v, long c) {
+        // Insere a aresta u -> v e devolve o seu número. Uma aresta nova sempre pode melhorar o ótimo.
+        if (u < 0 || u >= numVertices || v < 0 || v >= numVertices) {
+            throw new IllegalArgumentException("vértice fora do intervalo: " + u + " -> " + v);
+        }
+        int e = insert(u, v, c);
+        if (insertedCount == inserted.length) {
+            inserted = Arrays.copyOf(inserted, 2 * inserted.length);
+        }
+        inserted[insertedCount++] = e;
+        pending[e] = true;
+        markDirty(v);
+        return e;
+    }
+
+    void removeEdge(int e) {
+        checkAlive(e);
+        alive[e] = false;
+        remove(outEdges[from[e]], outCount, from[e], e);
+        remove(inEdges[to[e]], inCount, to[e], e);
+        int c = component[from[e]];
+        if (from[e] != to[e] && c == component[to[e]] && !splitCandidate[c]) {
+            splitCandidate[c] = true; // A componente pode ter se dividido.
+            splitList[splitCount++] = c;
+        }
+        if (parentEdge[to[e]] == e) {
+            markDirty(to[e]); // Fora da árvore, a remoção não muda o ótimo.
+        }
+    }
+
+    void modifyEdgeValue(int e, long c) {
+        checkAlive(e);
+        long old = cost[e];
+        cost[e] = c;
+        if (c < old || parentEdge[to[e]] == e) {
+            markDirty(to[e]); // Encarecer uma aresta fora da árvore não muda o ótimo.
+        }
+    }
+
+    int parentEdge(int v) {
+        return parentEdge[v];
+    }
+
+    int source(int e) {
+        return from[e];
+    }
+
+    int target(int e) {
+        return to[e];
+    }
+
+    long cost(int e) {
+        return cost[e];
+    }
+
+    Diff commit() {
+        // Aplica as alterações pendentes e devolve os vértices cuja aresta de entrada mudou.
+        if (dirtyCount == 0 && splitCount == 0) {
+            return new Diff(new int[0], new int[0], new int[0]);
+        }
+
+        // Componentes: primeiro as divisões, depois as arestas novas fora de ordem.
+        for (int i = 0; i < splitCount; i++) {
+            int c = splitList[i];
+            splitCandidate[c] = false;
+            if (size[c] > 1) {
+                split(c);
+            }
+        }
+        splitCount = 0;
+        for (int i = 0; i < insertedCount; i++) {
+            int e = inserted[i];
+            pending[e] = false;
+            if (alive[e]) {
+                int cu = component[from[e]];
+                int cv = component[to[e]];
+                if (cu != cv && key[cu] > key[cv]) {
+                    reorder(cu, cv);
+                }
+            }
+        }
+
+        // Alcance: as subárvores das arestas da árvore removidas ficam inalcançáveis até serem
+        // religadas; depois o alcance se propaga delas e dos destinos das arestas novas.
+        int numLost = 0;
+        for (int i = 0; i < dirtyCount; i++) {
+            int v = dirtyList[i];
+            if (parentEdge[v] >= 0 && !alive[parentEdge[v]] && !lost[v]) {
+                numLost = collectSubtree(v, numLost);
+            }
+        }
+        int top = 0;
+        for (int i = 0; i < numLost; i++) {
+            int w = lostList[i];
+            for (int j = 0; j < inCount[w] && !reachable[w]; j++) {
+                if (reachable[from[inEdges[w][j]]]) {
+                    reachable[w] = true;
+                    stack[top++] = w;
+                }
+            }
+        }
+        int numGained = 0;
+        for (int i = 0; i < insertedCount; i++) {
+            int e = inserted[i];
+            if (alive[e] && reachable[from[e]] && !reachable[to[e]]) {
+                reachable[to[e]] = true;
+                stack[top++] = to[e];
+                gainedList[numGained++] = to[e];
+            }
+        }
+        insertedCount = 0;
+        numGained = propagateReach(top, numGained);
+
+        // Componentes a resolver: as dos vértices sujos e as vizinhas de quem mudou de alcance.
+        int numResolve = 0;
+        for (int i = 0; i < dirtyCount; i++) {
+            numResolve = markResolve(component[dirtyList[i]], numResolve);
+        }
+        for (int i = 0; i < numLost + numGained; i++) {
+            int v = i < numLost ? lostList[i] : gainedList[i - numLost];
+            if (i < numLost && reachable[v]) {
+                continue; // Religado: o alcance não mudou.
+            }
+            numResolve = markResolve(component[v], numResolve);
+            for (int j = 0; j < outCount[v]; j++) {
+                numResolve = markResolve(component[to[outEdges[v][j]]], numResolve);
+            }
+        }
+
+        int numChanged = 0;
+        for (int i = 0; i < numResolve; i++) {
+            int c = resolveList[i];
+            resolve[c] = false;
+            int n = 0;
+            for (int v = head[c]; v >= 0; v = nextMember[v]) {
+                members[n++] = v;
+            }
+            int[] solution = reachable[head[c]] ? solveComponent(c, n) : null;
+            for (int j = 0; j < n; j++) {
+                int v = members[j];
+                int e = solution == null ? -1 : solution[j];
+                if (e != parentEdge[v]) {
+                    changed[numChanged] = v;
+                    oldEdges[numChanged] = parentEdge[v];
+                    newEdges[numChanged++] = e;
+                    parentEdge[v] = e;
+                }
+            }
+        }
+
+        for (int i = 0; i < numLost; i++) {
+            lost[lostList[i]] = false;
+        }
+        for (int i = 0; i < dirtyCount; i++) {
+            dirty[dirtyList[i]] = false;
+        }
+        dirtyCount = 0;
+        return new Diff(Arrays.copyOf(changed, numChanged), Arrays.copyOf(oldEdges, numChanged),
+                Arrays.copyOf(newEdges, numChanged));
+    }
+
+    private int collectSubtree(int v, int numLost) {
+        // Junta em lostList a subárvore de v (pelas arestas vivas da árvore) e a marca inalcançável.
+        int top = 0;
+        lost[v] = true;
+        reachable[v] = false;
+        lostList[numLost++] = v;
+        stack[top++] = v;
+        while (top > 0) {
+            int u = stack[--top];
+            for (int i = 0; i < outCount[u]; i++) {
+                int e = outEdges[u][i];
+                int w = to[e];
+                if (parentEdge[w] == e && !lost[w]) {
+                    lost[w] = true;
+                    reachable[w] = false;
+                    lostList[numLost++] = w;
+                    stack[top++] = w;
+                }
+            }
+        }
+        return numLost;
+    }
+
+    private int propagateReach(int top, int numGained) {
+        // Marca alcançável tudo o que sai dos top vértices da pilha; os que não eram da subárvore
+        // perdida são novos e entram em gainedList. Devolve o tamanho de gainedList.
+        while (top > 0) {
+            int u = stack[--top];
+            for (int i = 0; i < outCount[u]; i++) {
+                int w = to[outEdges[u][i]];
+                if (!reachable[w]) {
+                    reachable[w] = true;
+                    stack[top++] = w;
+                    if (!lost[w]) {
+                        gainedList[numGained++] = w;
+                    }
+                }
+            }
+        }
+        return numGained;
+    }
+
+    private int markResolve(int c, int numResolve) {
+        if (!resolve[c]) {
+            resolve[c] = true;
+            resolveList[numResolve++] = c;
+        }
+        return numResolve;
+    }
+
+    private void split(int c) {
+        // Tarjan só dentro de c, pelas arestas internas vivas. Se sair mais de uma componente, as
+        // partes repartem o intervalo de c em ordem topológica e todas são resolvidas de novo.
+        int n = 0;
+        for (int v = head[c]; v >= 0; v = nextMember[v]) {
+            members[n++] = v;
+            index[v] = -1;
+        }
+        int counter = 0;
+        int top = 0;
+        int numOrdered = 0;
+        int parts = 0;
+        int[] partEnd = local; // Fim de cada parte em order (local só é usado ao resolver).
+        for (int s = 0; s < n; s++) {
+            if (index[members[s]] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            int start = members[s];
+            index[start] = low[start] = counter++;
+            edgePos[start] = 0;
+            tarjanStack[top++] = start;
+            onStack[start] = true;
+            stack[depth++] = start;
+            while (depth > 0) {
+                int v = stack[depth - 1];
+                if (edgePos[v] < outCount[v]) {
+                    int w = to[outEdges[v][edgePos[v]++]];
+                    if (component[w] != c) {
+                        continue;
+                    }
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        edgePos[w] = 0;
+                        tarjanStack[top++] = w;
+                        onStack[w] = true;
+                        stack[depth++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = stack[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = tarjanStack[--top];
+                        onStack[w] = false;
+                        order[numOrdered++] = w;
+                    } while (w != v);
+                    partEnd[parts++] = numOrdered;
+                }
+            }
+        }
+        if (parts == 1) {
+            return;
+        }
+
+        if (limit[c] - key[c] < parts) {
+            renumber();
+        }
+        long first = key[c];
+        long step = (limit[c] - first) / parts;
+        long end = limit[c];
+        // As partes saem em ordem topológica reversa: a última fica com o começo do intervalo.
+        for (int p = 0; p < parts; p++) {
+            int id = p == parts - 1 ? c : freeComponents[--freeCount];
+            int position = parts - 1 - p;
+            key[id] = first + position * step;
+            limit[id] = p == 0 ? end : first + (position + 1) * step;
+            head[id] = -1;
+            size[id] = 0;
+            for (int i = p == 0 ? 0 : partEnd[p - 1]; i < partEnd[p]; i++) {
+                int v = order[i];
+                component[v] = id;
+                nextMember[v] = head[id];
+                head[id] = v;
+                size[id]++;
+            }
+            markDirty(head[id]); // Componente nova: é resolvida neste commit.
+        }
+    }
+
+    private void reorder(int cx, int cy) {
+        // Aresta nova de cx para cy com key[cx] > key[cy] (Pearce-Kelly). F: componentes alcançadas a
+        // partir de cy com chave até key[cx]; B: as que alcançam cx com chave desde key[cy]. Se cx está
+        // em F, as componentes em F e B formam um ciclo e viram uma só. A janela é reordenada com os
+        // mesmos intervalos: B antes de F (com a fundida entre as duas).
+        int numForward = search(cy, true, key[cx], forwardList, forward);
+        int numBackward = search(cx, false, key[cy], backwardList, backward);
+        boolean cycle = forward[cx];
+        int n = 0;
+        for (int i = 0; i < numForward; i++) {
+            sorted[n++] = forwardList[i];
+        }
+        for (int i = 0; i < numBackward; i++) {
+            if (!forward[backwardList[i]]) {
+                sorted[n++] = backwardList[i];
+            }
+        }
+        sortByKey(sorted, n);
+        for (int i = 0; i < n; i++) {
+            poolKey[i] = key[sorted[i]];
+            poolLimit[i] = limit[sorted[i]];
+        }
+
+        int slot = 0;
+        for (int i = 0; i < n; i++) {
+            int c = sorted[i];
+            if (backward[c] && !(cycle && forward[c])) {
+                key[c] = poolKey[slot];
+                limit[c] = poolLimit[slot++];
+            }
+        }
+        if (cycle) {
+            // A fundida fica com um intervalo só; os das outras componentes do ciclo sobram.
+            int merged = cx;
+            int numMerged = 0;
+            for (int i = 0; i < n; i++) {
+                int c = sorted[i];
+                if (forward[c] && backward[c]) {
+                    numMerged++;
+                    if (c != merged) {
+                        merge(merged, c);
+                    }
+                }
+            }
+            key[merged] = poolKey[slot];
+            limit[merged] = poolLimit[slot];
+            slot += numMerged;
+            markDirty(head[merged]); // Componente nova: é resolvida neste commit.
+        }
+        for (int i = 0; i < n; i++) {
+            int c = sorted[i];
+            if (forward[c] && !(cycle && backward[c])) {
+                key[c] = poolKey[slot];
+                limit[c] = poolLimit[slot++];
+            }
+        }
+
+        for (int i = 0; i < numForward; i++) {
+            forward[forwardList[i]] = false;
+        }
+        for (int i = 0; i < numBackward; i++) {
+            backward[backwardList[i]] = false;
+        }
+    }
+
+    private int search(int start, boolean outgoing, long bound, int[] list, boolean[] seen) {
+        // Componentes ligadas a start pelas arestas de saída (outgoing) ou de entrada, só as com chave
+        // até bound (saída) ou desde bound (entrada). Devolve quantas ficaram em list.
+        int n = 0;
+        int top = 0;
+        seen[start] = true;
+        list[n++] = start;
+        stack[top++] = start;
+        while (top > 0) {
+            int c = stack[--top];
+            for (int v = head[c]; v >= 0; v = nextMember[v]) {
+                int count = outgoing ? outCount[v] : inCount[v];
+                int[] edges = outgoing ? outEdges[v] : inEdges[v];
+                for (int i = 0; i < count; i++) {
+                    if (pending[edges[i]]) {
+                        continue; // Ainda fora da ordem: é tratada na sua vez.
+                    }
+                    int d = component[outgoing ? to[edges[i]] : from[edges[i]]];
+                    if (!seen[d] && (outgoing ? key[d] <= bound : key[d] >= bound)) {
+                        seen[d] = true;
+                        list[n++] = d;
+                        stack[top++] = d;
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    private void merge(int into, int c) {
+        // Passa os vértices de c para into e libera o número de c.
+        int last = -1;
+        for (int v = head[c]; v >= 0; v = nextMember[v]) {
+            component[v] = into;
+            last = v;
+        }
+        nextMember[last] = head[into];
+        head[into] = head[c];
+        size[into] += size[c];
+        head[c] = -1;
+        size[c] = 0;
+        freeComponents[freeCount++] = c;
+    }
+
+    private void renumber() {
+        // Os intervalos acabaram: redistribui as chaves de todas as componentes, na mesma ordem.
+        int n = 0;
+        for (int c = 0; c < numVertices; c++) {
+            if (size[c] > 0) {
+                sorted[n++] = c;
+            }
+        }
+        sortByKey(sorted, n);
+        long gap = Long.MAX_VALUE / (n + 1);
+        for (int i = 0; i < n; i++) {
+            key[sorted[i]] = i * gap;
+            limit[sorted[i]] = i * gap + gap;
+        }
+    }
+
+    private void sortByKey(int[] list, int n) {
+        // Ordena list[0 .. n - 1] pela chave (as chaves das componentes são distintas).
+        for (int i = 0; i < n; i++) {
+            sortKeys[i] = key[list[i]];
+        }
+        Arrays.sort(sortKeys, 0, n);
+        for (int i = 0; i < n; i++) {
+            sortTmp[Arrays.binarySearch(sortKeys, 0, n, key[list[i]])] = list[i];
+        }
+        System.arraycopy(sortTmp, 0, list, 0, n);
+    }
+
+    private int[] solveComponent(int c, int size) {
+        // Resolve a componente c (membros em members[0 .. size - 1]) com a raiz virtual 0; devolve a
+        // aresta de entrada de cada membro.
+        for (int i = 0; i < size; i++) {
+            local[members[i]] = i + 1;
+        }
+        boolean rootComponent = component[root] == c;
+
+        // Arestas virtuais primeiro (origem 0), depois as internas na ordem dos membros: a lista
+        // já sai ordenada pela origem, então o número da aresta no CSR é a posição nela.
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += inCount[members[i]];
+        }
+        int[] localFrom = new int[count + size];
+        int[] localTo = new int[count + size];
+        long[] localCost = new long[count + size];
+        int[] globalEdge = new int[count + size]; // Aresta original de cada aresta local (-1 = raiz virtual).
+        int m = 0;
+        for (int i = 0; i < size; i++) {
+            int v = members[i];
+            int best = -1;
+            if (rootComponent) {
+                if (v != root) {
+                    continue; // Na componente da raiz, só a própria raiz é ligada à raiz virtual.
+                }
+            } else {
+                for (int j = 0; j < inCount[v]; j++) {
+                    int e = inEdges[v][j];
+                    int u = from[e];
+                    if (component[u] != c && reachable[u]
+                            && (best < 0 || cost[e] < cost[best] || (cost[e] == cost[best] && e < best))) {
+                        best = e;
+                    }
+                }
+                if (best < 0) {
+                    continue;
+                }
+            }
+            localFrom[m] = 0;
+            localTo[m] = i + 1;
+            localCost[m] = best < 0 ? 0 : cost[best];
+            globalEdge[m++] = best;
+        }
+        for (int i = 0; i < size; i++) {
+            int u = members[i];
+            for (int j = 0; j < outCount[u]; j++) {
+                int e = outEdges[u][j];
+                int v = to[e];
+                if (v != u && component[v] == c) {
+                    localFrom[m] = i + 1;
+                    localTo[m] = local[v];
+                    localCost[m] = cost[e];
+                    globalEdge[m++] = e;
+                }
+            }
+        }
+
+        CsrGraph graph = CsrGraph.fromEdges(size + 1, Arrays.copyOf(localFrom, m), Arrays.copyOf(localTo, m),
+                Arrays.copyOf(localCost, m));
+        int[] localParent = new OptimumBranching(graph).solve(0);
+        int[] solution = new int[size];
+        for (int i = 0; i < size; i++) {
+            int e = localParent[i + 1];
+            solution[i] = e < 0 ? -1 : globalEdge[e];
+        }
+        return solution;
+    }
+
+    private int insert(int u, int v, long c) {
+        if (numEdges == from.length) {
+            int capacity = 2 * from.length;
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            cost = Arrays.copyOf(cost, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+            pending = Arrays.copyOf(pending, capacity);
+        }
+        int e = numEdges++;
+        from[e] = u;
+        to[e] = v;
+        cost[e] = c;
+        alive[e] = true;
+        if (outCount[u] == outEdges[u].length) {
+            outEdges[u] = Arrays.copyOf(outEdges[u], 2 * outCount[u]);
+        }
+        outEdges[u][outCount[u]++] = e;
+        if (inCount[v] == inEdges[v].length) {
+            inEdges[v] = Arrays.copyOf(inEdges[v], 2 * inCount[v]);
+        }
+        inEdges[v][inCount[v]++] = e;
+        return e;
+    }
+
+    private static void remove(int[] list, int[] count, int v, int e) {
+        // Remove e da lista de v trocando-a pela última.
+        for (int i = 0; i < count[v]; i++) {
+            if (list[i] == e) {
+                list[i] = list[--count[v]];
+                return;
+            }
+        }
+    }
+
+    private void markDirty(int v) {
+        if (!dirty[v]) {
+            dirty[v] = true;
+            dirtyList[dirtyCount++] = v;
+        }
+    }
+
+    private void checkAlive(int e) {
+        if (e < 0 || e >= numEdges || !alive[e]) {
+            throw new IllegalArgumentException("aresta inexistente: " + e);
+        }
+    }
+
+    static final class Diff {
+        final int[] vertices; // Vértices cuja aresta de entrada mudou.
+        final int[] oldEdges; // Aresta anterior de cada um (-1 = nenhuma).
+        final int[] newEdges; // Aresta nova de cada um (-1 = nenhuma).
+
+        Diff(int[] vertices, int[] oldEdges, int[] newEdges) {
+            this.vertices = vertices;
+            this.oldEdges = oldEdges;
+            this.newEdges = newEdges;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+// Floresta de heaps esquerdistas (leftist heaps) sobre arrays primitivos.
+// Cada nó é o índice de uma aresta; -1 representa o heap vazio.
+// Suporta "some delta a todo o heap" em O(1) através de marcas preguiçosas.
+final class EdgeHeap {
+    private final int[] left; // Filho esquerdo de cada nó.
+    private final int[] right; // Filho direito de cada nó.
+    private final int[] rank; // Distância até o nó nulo mais próximo (s-value).
+    private final long[] key; // Chave do nó, já com todos os deltas aplicados.
+    private final long[] lazy; // Delta pendente para os filhos.
+
+    EdgeHeap(int capacity) {
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.rank = new int[capacity];
+        this.key = new long[capacity];
+        this.lazy = new long[capacity];
+    }
+
+    int make(int node, long k) {
+        // Cria um heap com um único nó.
+        left[node] = -1;
+        right[node] = -1;
+        rank[node] = 1;
+        key[node] = k;
+        lazy[node] = 0;
+        return node;
+    }
+
+    long key(int heap) {
+        return key[heap];
+    }
+
+    void add(int heap, long delta) {
+        // Soma delta a todas as chaves do heap.
+        if (heap >= 0) {
+            key[heap] += delta;
+            lazy[heap] += delta;
+        }
+    }
+
+    int pop(int heap) {
+        // Remove o mínimo e devolve a nova raiz.
+        push(heap);
+        return merge(left[heap], right[heap]);
+    }
+
+    int merge(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        if (key[b] < key[a] || (key[b] == key[a] && b < a)) { // Desempate pelo índice da aresta.
+            int t = a;
+            a = b;
+            b = t;
+        }
+        push(a);
+        right[a] = merge(right[a], b);
+        if (rankOf(left[a]) < rankOf(right[a])) {
+            int t = left[a];
+            left[a] = right[a];
+            right[a] = t;
+        }
+        rank[a] = rankOf(right[a]) + 1;
+        return a;
+    }
+
+    private int rankOf(int node) {
+        return node < 0 ? 0 : rank[node];
+    }
+
+    private void push(int node) {
+        long d = lazy[node];
+        if (d != 0) {
+            add(left[node], d);
+            add(right[node], d);
+            lazy[node] = 0;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+// Carrega o arquivo de arestas ("numVertices numEdges" seguido de linhas "from to cost")
+// mapeando-o em memória e convertendo os inteiros direto dos bytes, sem Scanner.
+// Arquivos grandes são divididos em blocos terminados em '\n' e lidos em paralelo.
+final class EdgeListLoader {
+    private static final int CHUNK_SIZE = 64 << 20; // Tamanho máximo de cada bloco mapeado (64 MiB).
+
+    private EdgeListLoader() {
+    }
+
+    static CsrGraph load(String filePath) throws IOException {
+        return load(filePath, Runtime.getRuntime().availableProcessors());
+    }
+
+    static CsrGraph load(String filePath, int parallelism) throws IOException {
+        BranchingMetrics metrics = Metrics.get();
+        long t = Metrics.start(metrics);
+        List<Chunk> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long pos = 0;
+            while (pos < size) {
+                int length = (int) Math.min(CHUNK_SIZE, size - pos);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, length);
+                if (pos + length < size) {
+                    // O bloco termina no último '\n' para nenhuma linha ficar dividida.
+                    while (length > 0 && buffer.get(length - 1) != '\n') {
+                        length--;
+                    }
+                    if (length == 0) {
+                        throw new GraphFormatException(filePath, 1 + countLines(chunks, pos), pos, "linha maior que " + CHUNK_SIZE + " bytes");
+                    }
+                    buffer.limit(length);
+                }
+                chunks.add(new Chunk(buffer, pos));
+                pos += length;
+            }
+        }
+        if (chunks.isEmpty()) {
+            throw new GraphFormatException(filePath, 1, 0, "arquivo vazio");
+        }
+
+        // Cabeçalho: número de vértices e de arestas.
+        Chunk first = chunks.get(0);
+        int numVertices;
+        int numEdges;
+        try {
+            Cursor cursor = new Cursor(first.buffer, first.base, 0);
+            cursor.skipBlankLines();
+            numVertices = cursor.nextInt("número de vértices", 0, Integer.MAX_VALUE);
+            numEdges = cursor.nextInt("número de arestas", 0, Integer.MAX_VALUE - 8);
+            cursor.endOfLine();
+            first.start = cursor.pos;
+        } catch (ParseError e) {
+            throw e.toException(filePath, chunks);
+        }
+
+        int[] from;
+        int[] to;
+        int[] cost;
+        int count;
+        if (parallelism <= 1 || chunks.size() == 1) {
+            // Caminho sequencial: preenche os arrays finais em uma única passada.
+            from = new int[numEdges];
+            to = new int[numEdges];
+            cost = new int[numEdges];
+            count = 0;
+            for (Chunk chunk : chunks) {
+                chunk.from = from;
+                chunk.to = to;
+                chunk.cost = cost;
+                chunk.count = count;
+                chunk.parse(numVertices, false);
+                if (chunk.error != null) {
+                    throw chunk.error.toException(filePath, chunks);
+                }
+                count = chunk.count;
+            }
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.submit(() -> chunks.parallelStream().forEach(chunk -> {
+                    int capacity = Math.min(numEdges, chunk.buffer.limit() / 6 + 16);
+                    chunk.from = new int[capacity];
+                    chunk.to = new int[capacity];
+                    chunk.cost = new int[capacity];
+                    chunk.parse(numVertices, true);
+                })).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+            count = 0;
+            for (Chunk chunk : chunks) {
+                if (chunk.error != null) {
+                    throw chunk.error.toException(filePath, chunks);
+                }
+                count += chunk.count;
+            }
+            if (count > numEdges) {
+                throw new ParseError(last(chunks), "mais arestas que as " + numEdges + " do cabeçalho").toException(filePath, chunks);
+            }
+            from = new int[numEdges];
+            to = new int[numEdges];
+            cost = new int[numEdges];
+            int offset = 0;
+            for (Chunk chunk : chunks) {
+                System.arraycopy(chunk.from, 0, from, offset, chunk.count);
+                System.arraycopy(chunk.to, 0, to, offset, chunk.count);
+                System.arraycopy(chunk.cost, 0, cost, offset, chunk.count);
+                offset += chunk.count;
+                chunk.from = chunk.to = chunk.cost = null;
+            }
+        }
+        if (count != numEdges) {
+            throw new ParseError(last(chunks), "esperadas " + numEdges + " arestas, encontradas " + count).toException(filePath, chunks);
+        }
+        t = Metrics.lap(metrics, "loader", "parse", t);
+        CsrGraph graph = CsrGraph.fromEdges(numVertices, from, to, cost);
+        Metrics.lap(metrics, "loader", "csr", t);
+        metrics.edgesScanned("loader", numEdges);
+        return graph;
+    }
+
+    private static long last(List<Chunk> chunks) {
+        Chunk chunk = chunks.get(chunks.size() - 1);
+        return chunk.base + chunk.buffer.limit();
+    }
+
+    private static long countLines(List<Chunk> chunks, long offset) {
+        // Conta os '\n' antes do offset; só é usado ao montar mensagens de erro.
+        long lines = 0;
+        for (Chunk chunk : chunks) {
+            int end = (int) Math.min(chunk.buffer.limit(), offset - chunk.base);
+            for (int i = 0; i < end; i++) {
+                if (chunk.buffer.get(i) == '\n') {
+                    lines++;
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static final class Chunk {
+        final MappedByteBuffer buffer; // Bytes do bloco.
+        final long base; // Offset do bloco no arquivo.
+        int start; // Primeira posição a ler (pula o cabeçalho no primeiro bloco).
+        int[] from;
+        int[] to;
+        int[] cost;
+        int count; // Próxima posição livre nos arrays.
+        ParseError error; // Primeiro erro encontrado no bloco, se houver.
+
+        Chunk(MappedByteBuffer buffer, long base) {
+            this.buffer = buffer;
+            this.base = base;
+        }
+
+        void parse(int numVertices, boolean growable) {
+            try {
+                Cursor cursor = new Cursor(buffer, base, start);
+                while (cursor.skipBlankLines()) {
+                    if (count == from.length) {
+                        if (!growable) {
+                            throw new ParseError(cursor.offset(), "mais arestas que as " + from.length + " do cabeçalho");
+                        }
+                        int capacity = Math.max(16, 2 * count);
+                        from = Arrays.copyOf(from, capacity);
+                        to = Arrays.copyOf(to, capacity);
+                        cost = Arrays.copyOf(cost, capacity);
+                    }
+                    from[count] = cursor.nextInt("origem", 0, numVertices - 1);
+                    to[count] = cursor.nextInt("destino", 0, numVertices - 1);
+                    cost[count] = cursor.nextInt("custo", Integer.MIN_VALUE, Integer.MAX_VALUE);
+                    cursor.endOfLine();
+                    count++;
+                }
+            } catch (ParseError e) {
+                error = e;
+            }
+        }
+    }
+
+    private static final class Cursor {
+        final MappedByteBuffer buffer;
+        final long base;
+        final int limit;
+        int pos;
+
+        Cursor(MappedByteBuffer buffer, long base, int pos) {
+            this.buffer = buffer;
+            this.base = base;
+            this.limit = buffer.limit();
+            this.pos = pos;
+        }
+
+        long offset() {
+            return base + pos;
+        }
+
+        boolean skipBlankLines() {
+            // Pula espaços e linhas vazias; devolve false no fim do bloco.
+            while (pos < limit) {
+                byte b = buffer.get(pos);
+                if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                    return true;
+                }
+                pos++;
+            }
+            return false;
+        }
+
+        int nextInt(String field, int min, int max) {
+            while (pos < limit && (buffer.get(pos) == ' ' || buffer.get(pos) == '\t')) {
+                pos++;
+            }
+            long start = offset();
+            boolean negative = false;
+            if (pos < limit && buffer.get(pos) == '-') {
+                negative = true;
+                pos++;
+            }
+            long value = 0;
+            int digits = 0;
+            while (pos < limit) {
+                int d = buffer.get(pos) - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                value = value * 10 + d;
+                if (value > 1L + Integer.MAX_VALUE) {
+                    throw new ParseError(start, field + " fora do intervalo de int");
+                }
+                digits++;
+                pos++;
+            }
+            if (digits == 0) {
+                throw new ParseError(offset(), pos < limit && buffer.get(pos) != '\n' && buffer.get(pos) != '\r'
+                        ? field + ": caractere inesperado '" + (char) buffer.get(pos) + "'"
+                        : field + " ausente");
+            }
+            if (pos < limit && buffer.get(pos) != ' ' && buffer.get(pos) != '\t' && buffer.get(pos) != '\r' && buffer.get(pos) != '\n') {
+                throw new ParseError(offset(), field + ": caractere inesperado '" + (char) buffer.get(pos) + "'");
+            }
+            long signed = negative ? -value : value;
+            if (signed < min || signed > max) {
+                throw new ParseError(start, field + " " + signed + " fora do intervalo [" + min + ", " + max + "]");
+            }
+            return (int) signed;
+        }
+
+        void endOfLine() {
+            while (pos < limit && (buffer.get(pos) == ' ' || buffer.get(pos) == '\t' || buffer.get(pos) == '\r')) {
+                pos++;
+            }
+            if (pos < limit) {
+                if (buffer.get(pos) != '\n') {
+                    throw new ParseError(offset(), "campo a mais na linha");
+                }
+                pos++;
+            }
+        }
+    }
+
+    private static final class ParseError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final long offset; // Offset do erro no arquivo.
+
+        ParseError(long offset, String message) {
+            super(message, null, false, false);
+            this.offset = offset;
+        }
+
+        GraphFormatException toException(String filePath, List<Chunk> chunks) {
+            return new GraphFormatException(filePath, 1 + countLines(chunks, offset), offset, getMessage());
+        }
+    }
+}
@@ -1,141 +1,397 @@
-import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 public class Edmonds {
-    private final List<List<Edge>> graph; // Representa o grafo como uma lista de listas de arestas.
+    private final CsrGraph graph; // Representa o grafo em formato CSR (arrays primitivos).
     private final int numVertices; // Número de vértices no grafo.
     private int[] incomingEdge; // Para cada vértice, mantém a aresta de entrada.
-    private int[] incomingEdgeCost; // Para cada vértice, mantém o custo da aresta de entrada.
+    private long[] incomingEdgeCost; // Para cada vértice, mantém o custo da aresta de entrada.
     private int root; // Raiz a partir da qual o branching será encontrado.
+    private int solvedRoot = -1; // Raiz do último branching calculado por run().
+    private int[] solvedEdges; // Aresta de entrada de cada vértice no último run() (-1 na raiz e nos inalcançáveis).
+    private double rootsPerSecond; // Vazão da última execução em lote.
+    private ForkJoinPool pool = ForkJoinPool.commonPool(); // Pool das fases paralelas (null = sequencial).
+    private OptimumBranching engine; // Reaproveita a área de trabalho entre execuções de run().
+    private boolean sccDecomposition; // Resolve cada componente fortemente conexa separadamente.
+    private DecomposedBranching decomposed; // Componentes calculadas uma vez, reaproveitadas entre raízes.
+    private SuperRootBranching superRoot; // Objetivos e modos de raiz; reaproveita os motores entre chamadas.
+    private int[] branchingRoots = new int[0]; // Raízes do último branching com objetivo e modo.
+    private BranchingCertificate certificate; // Certificado dual da última execução (null = sem verificação).
+
+    public enum Objective {
+        MIN, // Custo total mínimo.
+        MAX // Peso total máximo.
+    }
+
+    public enum RootMode {
+        FIXED, // A raiz é dada.
+        BEST, // A raiz é escolhida pelo próprio algoritmo (uma só execução).
+        FOREST // Sem raiz: floresta ótima, com quantas raízes forem necessárias.
+    }
 
     public Edmonds(List<List<Edge>> graph) {
+        this(CsrGraph.fromAdjacency(graph));
+    }
+
+    Edmonds(CsrGraph graph) {
         this.graph = graph;
-        this.numVertices = graph.size();
+        this.numVertices = graph.numVertices();
         this.incomingEdge = new int[numVertices];
-        this.incomingEdgeCost = new int[numVertices];
+        this.incomingEdgeCost = new long[numVertices];
         Arrays.fill(this.incomingEdge, 0); // Inicializa as arestas de entrada como 0.
-        Arrays.fill(this.incomingEdgeCost, Integer.MAX_VALUE); // Inicializa os custos das arestas de entrada como infinito.
+        Arrays.fill(this.incomingEdgeCost, Long.MAX_VALUE); // Inicializa os custos das arestas de entrada como infinito.
     }
 
     public void run() {
         // Encontra o branching ótimo a partir da raiz especificada.
-        for (int v = 0; v < numVertices; v++) {
-            if (v != root) {
-                for (int u = 0; u < numVertices; u++) {
-                    for (Edge edge : graph.get(u)) {
-                        int neighbor = edge.to;
-                        int cost = edge.cost;
-                        if (incomingEdgeCost[neighbor] > cost) {
-                            incomingEdgeCost[neighbor] = cost;
-                            incomingEdge[neighbor] = u;
-                        }
-                    }
-                }
+        int[] parentEdge;
+        if (sccDecomposition) {
+            if (decomposed == null) {
+                decomposed = new DecomposedBranching(graph, pool);
             }
+            parentEdge = decomposed.solve(root);
+        } else {
+            if (engine == null) {
+                engine = new OptimumBranching(graph, pool);
+            }
+            parentEdge = engine.solve(root, certificate);
+        }
+        if (certificate != null) {
+            // Com a decomposição não há certificado dual: só a estrutura da arborescência é conferida.
+            BranchingCertificate.check(graph, root, parentEdge, sccDecomposition ? null : certificate);
         }
 
+        Arrays.fill(incomingEdge, 0);
+        Arrays.fill(incomingEdgeCost, Long.MAX_VALUE);
         for (int v = 0; v < numVertices; v++) {
-            if (v != root) {
-                int u = v;
-                boolean[] seen = new boolean[numVertices];
-                while (true) {
-                    if (seen[u] || u == root) {
-                        break;
-                    }
-                    seen[u] = true;
-                    u = incomingEdge[u];
-                }
-
-                if (u == root) {
-                    continue;
-                }
-
-                u = incomingEdge[u];
-                while (v != u) {
-                    incomingEdge[v] = u;
-                    v = u;
-                    u = incomingEdge[u];
-                }
+            if (parentEdge[v] >= 0) {
+                incomingEdge[v] = graph.source(parentEdge[v]);
+                incomingEdgeCost[v] = graph.longCost(parentEdge[v]);
             }
         }
+        solvedEdges = parentEdge;
+        solvedRoot = root;
+    }
+
+    public void setParallelism(int parallelism) {
+        // Número de threads das fases paralelas; 1 executa tudo sequencialmente. O pool próprio
+        // anterior é encerrado, e nada muda se o número de threads for o mesmo.
+        if (parallelism <= 1 ? pool == null : pool != null && pool.getParallelism() == parallelism) {
+            return;
+        }
+        if (pool != null && pool != ForkJoinPool.commonPool()) {
+            pool.shutdown(); // As tarefas já submetidas terminam; as threads saem em seguida.
+        }
+        if (parallelism <= 1) {
+            pool = null;
+        } else if (parallelism == ForkJoinPool.commonPool().getParallelism()) {
+            pool = ForkJoinPool.commonPool();
+        } else {
+            pool = new ForkJoinPool(parallelism);
+        }
+        solvedRoot = -1;
+        engine = null;
+        decomposed = null;
+        superRoot = null;
+    }
+
+    public void setVerification(boolean enabled) {
+        // Confere cada resultado de run() com o certificado dual (IllegalStateException se falhar).
+        certificate = enabled ? new BranchingCertificate() : null;
+        solvedRoot = -1;
+    }
+
+    public void setSccDecomposition(boolean enabled) {
+        // Calcula as componentes fortemente conexas em paralelo e resolve cada uma separadamente.
+        sccDecomposition = enabled;
+        solvedRoot = -1;
     }
 
     public List<Edge> findOptimumBranching(int root) {
         // Encontra o branching ótimo a partir da raiz especificada e retorna as arestas no branching.
+        solve(root);
+        // Só os vértices que têm aresta de entrada: a raiz e os inalcançáveis ficam de fora.
         List<Edge> result = new ArrayList<>();
         for (int v = 0; v < numVertices; v++) {
-            if (v != root) {
+            if (solvedEdges[v] >= 0) {
                 result.add(new Edge(incomingEdge[v], v, incomingEdgeCost[v]));
             }
         }
         return result;
     }
 
+    void writeOptimumBranching(int root, BranchingSink sink) throws IOException {
+        // Como findOptimumBranching(root), mas grava o resultado direto dos arrays, sem criar arestas.
+        solve(root);
+        sink.write(graph, root, solvedEdges);
+    }
+
+    void writeParents(int root, String filePath) throws IOException {
+        // Grava só o array de pais do branching, num arquivo mapeado (veja BranchingSink.mapParents).
+        solve(root);
+        BranchingSink.writeParents(filePath, graph, root, solvedEdges);
+    }
+
+    private void solve(int root) {
+        // Executa run() só se o último branching calculado não for desta raiz.
+        if (solvedRoot != root) {
+            this.root = root;
+            run();
+        }
+    }
+
+    public List<Edge> findOptimumBranching(Objective objective, RootMode mode, int root) {
+        // Branching ótimo com o objetivo e o modo de raiz dados (root só é usada com FIXED).
+        // Retorna só as arestas escolhidas; as raízes ficam em getBranchingRoots().
+        if (superRoot == null) {
+            superRoot = new SuperRootBranching(graph, pool);
+        }
+        SuperRootBranching.Result solved = superRoot.solve(objective, mode, root);
+        List<Edge> result = new ArrayList<>();
+        for (int v = 0; v < numVertices; v++) {
+            int e = solved.parentEdge[v];
+            if (e >= 0) {
+                result.add(new Edge(graph.source(e), v, graph.longCost(e)));
+            }
+        }
+        branchingRoots = solved.roots;
+        return result;
+    }
+
+    void writeOptimumBranching(Objective objective, RootMode mode, int root, BranchingSink sink, String parentsPath) throws IOException {
+        // Como findOptimumBranching(objective, mode, root), gravando no sink a linha "Raízes: [...]" e o
+        // branching (e, se parentsPath não for null, também o arquivo de pais).
+        if (superRoot == null) {
+            superRoot = new SuperRootBranching(graph, pool);
+        }
+        SuperRootBranching.Result solved = superRoot.solve(objective, mode, root);
+        branchingRoots = solved.roots;
+        int fixedRoot = mode == RootMode.FIXED ? root : -1;
+        sink.line("Raízes: " + Arrays.toString(branchingRoots));
+        sink.write(graph, fixedRoot, solved.parentEdge);
+        if (parentsPath != null) {
+            BranchingSink.writeParents(parentsPath, graph, fixedRoot, solved.parentEdge);
+        }
+    }
+
+    public int[] getBranchingRoots() {
+        // Raízes do último branching calculado por findOptimumBranching(objective, mode, root).
+        return branchingRoots.clone();
+    }
+
+    public List<List<Edge>> findOptimumBranchings(List<Integer> roots) {
+        // Encontra os branchings ótimos de várias raízes; a fase de contração é feita uma só vez
+        // e as expansões de cada raiz rodam em paralelo.
+        long start = System.nanoTime();
+        int[] rootArray = roots.stream().mapToInt(Integer::intValue).toArray();
+        int[][] parentEdges = new MultiRootBranching(graph, pool).solveAll(rootArray);
+
+        List<List<Edge>> result = new ArrayList<>(rootArray.length);
+        for (int i = 0; i < rootArray.length; i++) {
+            List<Edge> branching = new ArrayList<>();
+            for (int v = 0; v < numVertices; v++) {
+                int e = parentEdges[i][v];
+                if (e >= 0) {
+                    branching.add(new Edge(graph.source(e), v, graph.longCost(e)));
+                }
+            }
+            result.add(branching);
+        }
+        rootsPerSecond = rootArray.length / ((System.nanoTime() - start) / 1e9);
+        return result;
+    }
+
+    void writeOptimumBranchings(List<Integer> roots, BranchingSink sink) throws IOException {
+        // Como findOptimumBranchings, gravando cada branching no sink, precedido de "Raiz r:".
+        long start = System.nanoTime();
+        int[] rootArray = roots.stream().mapToInt(Integer::intValue).toArray();
+        int[][] parentEdges = new MultiRootBranching(graph, pool).solveAll(rootArray);
+        rootsPerSecond = rootArray.length / ((System.nanoTime() - start) / 1e9);
+        for (int i = 0; i < rootArray.length; i++) {
+            sink.line("Raiz " + rootArray[i] + ":");
+            sink.write(graph, rootArray[i], parentEdges[i]);
+        }
+    }
+
+    public List<List<Edge>> findKBestBranchings(int root, int k) {
+        // Os k branchings de menor custo a partir da raiz, em ordem crescente de custo
+        // (menos de k se o grafo não tiver tantos). Para consumir um por vez, veja KBestBranchings.
+        List<List<Edge>> result = new ArrayList<>();
+        for (KBestBranchings.Solution solution : KBestBranchings.best(graph, root, k)) {
+            List<Edge> branching = new ArrayList<>();
+            for (int v = 0; v < numVertices; v++) {
+                int e = solution.parentEdge[v];
+                if (e >= 0) {
+                    branching.add(new Edge(graph.source(e), v, graph.longCost(e)));
+                }
+            }
+            result.add(branching);
+        }
+        return result;
+    }
+
+    public double getRootsPerSecond() {
+        // Vazão (raízes por segundo) da última chamada a findOptimumBranchings.
+        return rootsPerSecond;
+    }
+
     public static class Edge {
         int from; // Vértice de origem.
         int to; // Vértice de destino.
-        int cost; // Custo da aresta.
+        long cost; // Custo da aresta.
 
-        public Edge(int from, int to, int cost) {
+        public Edge(int from, int to, long cost) {
             this.from = from;
             this.to = to;
             this.cost = cost;
         }
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        String metricsPath = System.getProperty("edmonds.metrics"); // -Dedmonds.metrics=arquivo.json liga as métricas.
+        MetricsRecorder recorder = null;
+        if (metricsPath != null) {
+            recorder = new MetricsRecorder();
+            Metrics.install(recorder);
+        }
+        boolean failed = false;
+        try {
+            solveFromInput();
+        } catch (IOException e) {
+            // Arquivo ausente, ilegível ou mal formado: sai com erro em vez de seguir com um grafo vazio.
+            System.err.println("Erro: " + e);
+            failed = true;
+        } finally {
+            if (recorder != null) {
+                try {
+                    recorder.writeJson(metricsPath);
+                } catch (IOException e) {
+                    // Só avisa: uma falha aqui não pode esconder a exceção da resolução.
+                    System.err.println("Erro ao gravar as métricas: " + e);
+                    failed = true;
+                }
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static void solveFromInput() throws IOException {
         String filePath = "edges.txt"; // Especifique o caminho para o arquivo de arestas.
-        List<List<Edge>> graph = readFile(filePath); // Lê as arestas do arquivo e cria o grafo.
+        boolean external = Files.isRegularFile(Paths.get(filePath)) && ExternalEdgeFile.isExternal(filePath); // Grafo maior que o heap: fica no disco.
+        CsrGraph graph = external ? null : readGraph(filePath); // Lê as arestas do arquivo e cria o grafo.
 
+        // -Dedmonds.objective=max procura o branching de peso máximo.
+        Objective objective = Objective.valueOf(System.getProperty("edmonds.objective", "min").toUpperCase());
+        // -Dedmonds.output=binario grava o resultado no formato binário de BranchingSink; -Dedmonds.output.file=arquivo
+        // grava num arquivo em vez da saída padrão; -Dedmonds.parents=arquivo grava também o array de pais mapeado.
+        BranchingSink.Format format = System.getProperty("edmonds.output", "texto").equals("binario")
+                ? BranchingSink.Format.BINARY : BranchingSink.Format.TEXT;
+        String outputPath = System.getProperty("edmonds.output.file");
+        String parentsPath = System.getProperty("edmonds.parents");
         Scanner sc = new Scanner(System.in);
-        System.out.println("Escolha a raiz: ");
-        int root = sc.nextInt(); // Solicita ao usuário para escolher a raiz.
-
-        Edmonds edmondsOptimum = new Edmonds(graph);
-        edmondsOptimum.root = root; // Define a raiz no objeto Edmonds.
-        edmondsOptimum.run(); // Executa o algoritmo para encontrar o branching ótimo.
-
-        List<Edge> optimumBranching = edmondsOptimum.findOptimumBranching(root); // Encontra o branching ótimo.
+        System.out.println("Escolha a raiz (ou várias, separadas por espaço; \"melhor\" ou \"floresta\" dispensam a raiz): ");
+        String line = sc.nextLine().trim();
+        RootMode mode = line.equals("melhor") ? RootMode.BEST : line.equals("floresta") ? RootMode.FOREST : RootMode.FIXED;
+        List<Integer> roots = new ArrayList<>();
+        for (String token : mode == RootMode.FIXED ? line.split("\\s+") : new String[0]) {
+            roots.add(Integer.parseInt(token)); // Solicita ao usuário para escolher a raiz.
+        }
+        if (external && (mode != RootMode.FIXED || objective != Objective.MIN)) {
+            throw new IllegalArgumentException("o arquivo externo só aceita custo mínimo com raiz fixa");
+        }
+        if (parentsPath != null && roots.size() > 1) {
+            throw new IllegalArgumentException("o arquivo de pais só aceita uma raiz");
+        }
 
-        if (!optimumBranching.isEmpty()) {
-            System.out.println("Optimum Branching:");
-            for (Edge edge : optimumBranching) {
-                if(edge.cost < Integer.MAX_VALUE) {
-                    System.out.println(edge.from + " -> " + edge.to + " - Cost: " + edge.cost);
+        try (BranchingSink sink = outputPath != null ? BranchingSink.open(outputPath, format) : BranchingSink.stdout(format)) {
+            if (mode != RootMode.FIXED || objective != Objective.MIN) {
+                Edmonds edmonds = new Edmonds(graph);
+                for (int root : mode == RootMode.FIXED ? roots : List.of(-1)) {
+                    edmonds.writeOptimumBranching(objective, mode, root, sink, parentsPath);
                 }
+                return;
             }
-        } else {
-            System.out.println("No optimum branching exists.");
-        }
-    }
-
-    public static List<List<Edge>> readFile(String filePath) {
-        // Lê as arestas de um arquivo e cria o grafo.
-        List<List<Edge>> graph = new ArrayList<>();
 
-        try (Scanner sc = new Scanner(new File(filePath))) {
-            int numVertices = sc.nextInt();
-            int numEdges = sc.nextInt();
+            if (external) {
+                try (ExternalEdgeFile file = ExternalEdgeFile.open(filePath)) {
+                    for (int root : roots) {
+                        if (roots.size() > 1) {
+                            sink.line("Raiz " + root + ":");
+                        }
+                        long[] parentEdge = new ExternalBranching(file).solve(root);
+                        sink.write(file, root, parentEdge);
+                        if (parentsPath != null) {
+                            BranchingSink.writeParents(parentsPath, file, root, parentEdge);
+                        }
+                    }
+                }
+                return;
+            }
 
-            for (int i = 0; i < numVertices; i++) {
-                graph.add(new ArrayList<>());
+            Edmonds edmondsOptimum = new Edmonds(graph);
+            edmondsOptimum.setVerification(Boolean.getBoolean("edmonds.verify")); // -Dedmonds.verify=true confere o resultado.
+            if (roots.size() > 1) {
+                edmondsOptimum.writeOptimumBranchings(roots, sink); // Modo em lote.
+                sink.line(String.format("Raízes por segundo: %.1f", edmondsOptimum.getRootsPerSecond()));
+                return;
             }
 
-            while (sc.hasNext()) {
-                int from = sc.nextInt();
-                int to = sc.nextInt();
-                int cost = sc.nextInt();
+            int root = roots.get(0);
+            edmondsOptimum.writeOptimumBranching(root, sink); // Encontra o branching ótimo e grava direto dos arrays.
+            if (parentsPath != null) {
+                edmondsOptimum.writeParents(root, parentsPath);
+            }
+        }
+    }
 
-                graph.get(from).add(new Edge(from, to, cost));
+    static List<Edge> findOptimumBranchingExternal(String filePath, int root) throws IOException {
+        // Branching ótimo lendo as arestas direto de um ExternalEdgeFile, sem carregá-las no heap.
+        try (ExternalEdgeFile file = ExternalEdgeFile.open(filePath)) {
+            long[] parentEdge = new ExternalBranching(file).solve(root);
+            List<Edge> result = new ArrayList<>();
+            for (int v = 0; v < parentEdge.length; v++) {
+                if (parentEdge[v] >= 0) {
+                    result.add(new Edge(file.source(parentEdge[v]), v, file.cost(parentEdge[v])));
+                }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            return result;
         }
+    }
 
+    public static List<List<Edge>> readFile(String filePath) {
+        // Lê as arestas de um arquivo na representação antiga (lista de listas de arestas). Os
+        // erros de leitura e de formato sobem como UncheckedIOException.
+        CsrGraph csr;
+        try {
+            csr = readGraph(filePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<List<Edge>> graph = new ArrayList<>(csr.numVertices());
+        for (int u = 0; u < csr.numVertices(); u++) {
+            List<Edge> edges = new ArrayList<>(csr.endOutEdge(u) - csr.firstOutEdge(u));
+            for (int e = csr.firstOutEdge(u); e < csr.endOutEdge(u); e++) {
+                edges.add(new Edge(u, csr.target(e), csr.longCost(e)));
+            }
+            graph.add(edges);
+        }
         return graph;
     }
+
+    static CsrGraph readGraph(String filePath) throws IOException {
+        // Lê as arestas de um arquivo e cria o grafo em CSR; os erros de leitura e de formato sobem.
+        if (BinaryGraphFile.isBinary(filePath)) {
+            return BinaryGraphFile.load(filePath); // Formato binário: mapeado sem cópia.
+        }
+        return EdgeListLoader.load(filePath);
+    }
 }
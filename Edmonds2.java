@@ -5,29 +5,55 @@ public class Edmonds2 {
         int from;
         int to;
         int cost;
+        int reduced; // Custo reduzido, o único que o algoritmo altera; cost guarda o custo da entrada.
 
         public Edge(int from, int to, int cost) {
             this.from = from;
             this.to = to;
             this.cost = cost;
+            this.reduced = cost;
         }
     }
 
     public static List<Edge> branchAndRoot(List<List<Edge>> graph) {
+        return branchAndRoot(graph, null);
+    }
+
+    static List<Edge> branchAndRoot(List<List<Edge>> graph, SolveBudget budget) {
+        // Com orçamento (null = sem limite), para quando ele acaba e devolve o branching parcial.
         int numVertices = graph.size();
         List<Edge> H = new ArrayList<>();
+        VertexSet members = new VertexSet(numVertices); // Cadeia ou ciclo sendo contraído.
+        int[] cycle = new int[numVertices];
+        int[] predecessor = new int[numVertices];
+        Arrays.fill(predecessor, -1);
+        for (List<Edge> out : graph) {
+            for (Edge edge : out) {
+                edge.reduced = edge.cost; // Cada execução parte dos custos da entrada.
+            }
+        }
+        BranchingMetrics metrics = Metrics.get();
+        long t = Metrics.start(metrics);
+        long scanned = 0; // Arestas examinadas na escolha das entradas.
+        long[] cycleLengths = metrics == BranchingMetrics.NONE ? null : new long[16]; // Histograma local dos ciclos.
 
-        while (true) {
+        boolean stopped = false; // O orçamento acabou.
+        while (!stopped) {
             int[] parent = new int[numVertices];
             Arrays.fill(parent, -1);
 
-            for (int u = 0; u < numVertices; u++) {
+            for (int u = 0; u < numVertices && !stopped; u++) {
                 if (u == 0 || parent[u] != -1) continue;
 
                 int bestIncoming = -1;
+                scanned += graph.get(u).size();
+                if (budget != null && budget.charge(1 + graph.get(u).size())) {
+                    stopped = true;
+                    break;
+                }
                 for (Edge edge : graph.get(u)) {
                     int v = edge.to;
-                    if (bestIncoming == -1 || edge.cost > graph.get(u).get(bestIncoming).cost) {
+                    if (bestIncoming == -1 || edge.reduced > graph.get(u).get(bestIncoming).reduced) {
                         bestIncoming = graph.get(u).indexOf(edge);
                     }
                 }
@@ -38,6 +64,10 @@ public class Edmonds2 {
                 int x = u;
                 int w;
                 while (x != 0) {
+                    if (budget != null && budget.charge(1)) {
+                        stopped = true; // A caminhada pode não chegar a 0.
+                        break;
+                    }
                     w = x;
                     x = parent[x];
                     parent[w] = v;
@@ -45,29 +75,107 @@ public class Edmonds2 {
                 }
             }
 
+            if (stopped) {
+                break;
+            }
             int u = findRootComponent(numVertices, parent);
             if (u == -1) {
                 break;
             }
 
-            int v = contractComponent(u, parent, H, graph);
+            int v = contractComponent(u, parent, H, graph, members, cycle, budget);
+            if (budget != null && budget.isExhausted()) {
+                stopped = true;
+                break;
+            }
 
             if (v != -1) {
-                List<Integer> contractVertices = new ArrayList<>();
-                contractVertices.add(v);
+                int size = 0;
+                cycle[size++] = v;
                 while (v != u) {
+                    if (budget != null && budget.charge(1)) {
+                        stopped = true; // A caminhada pode não voltar a u.
+                        break;
+                    }
                     v = parent[v];
-                    contractVertices.add(v);
+                    cycle[size++] = v;
+                }
+                if (!stopped) {
+                    findCycles(u, cycle, size, H, graph, members, predecessor, budget);
+                    stopped = budget != null && budget.isExhausted();
+                }
+                if (stopped) {
+                    break;
+                }
+                if (cycleLengths != null) {
+                    cycleLengths = Metrics.countCycle(cycleLengths, size);
                 }
-                findCycles(u, contractVertices, H, graph);
                 unblock(u, H, graph);
             }
         }
 
-        return H;
+        Metrics.lap(metrics, "edmonds2", "branch", t);
+        metrics.edgesScanned("edmonds2", scanned);
+        if (cycleLengths != null) {
+            metrics.contractions("edmonds2", cycleLengths);
+        }
+        return stopped ? partialBranching(H, numVertices, budget) : H;
+    }
+
+    private static List<Edge> partialBranching(List<Edge> H, int numVertices, SolveBudget budget) {
+        // Branching viável com raiz 0 a partir de H, na ordem de H: uma aresta entra se o destino
+        // ainda não tem pai e ela não fecha ciclo. O peso vai para o orçamento.
+        DisjointSet trees = new DisjointSet(numVertices);
+        boolean[] hasParent = new boolean[numVertices];
+        List<Edge> branching = new ArrayList<>();
+        long weight = 0;
+        for (Edge edge : H) {
+            int u = edge.from;
+            int v = edge.to;
+            if (u < 0 || u >= numVertices || v <= 0 || v >= numVertices || hasParent[v] || trees.connected(u, v)) {
+                continue;
+            }
+            hasParent[v] = true;
+            trees.union(u, v);
+            branching.add(edge);
+            weight += edge.cost;
+        }
+        budget.record(weight);
+        return branching;
+    }
+
+    public static List<Edge> branchAndRoot(CsrGraph csr) {
+        return branchAndRoot(csr, null);
+    }
+
+    static List<Edge> branchAndRoot(CsrGraph csr, SolveBudget budget) {
+        return branchAndRoot(fromCsr(csr), budget);
+    }
+
+    static List<List<Edge>> fromCsr(CsrGraph csr) {
+        // Listas de adjacência de saída com arestas novas, na ordem do CSR.
+        List<List<Edge>> graph = new ArrayList<>(csr.numVertices());
+        for (int u = 0; u < csr.numVertices(); u++) {
+            List<Edge> edges = new ArrayList<>(csr.endOutEdge(u) - csr.firstOutEdge(u));
+            for (int e = csr.firstOutEdge(u); e < csr.endOutEdge(u); e++) {
+                edges.add(new Edge(u, csr.target(e), csr.cost(e)));
+            }
+            graph.add(edges);
+        }
+        return graph;
     }
 
     public static void rootAlgorithm(List<Edge> H, List<List<Edge>> graph) {
+        rootAlgorithm(H, graph, null);
+    }
+
+    static void rootAlgorithm(List<Edge> H, List<List<Edge>> graph, SolveBudget budget) {
+        // Com orçamento, para quando ele acaba e troca H pelo branching parcial viável contido nele.
+        VertexSet members = new VertexSet(graph.size());
+        int[] chain = new int[graph.size()];
+        BranchingMetrics metrics = Metrics.get();
+        long t = Metrics.start(metrics);
+        long[] cycleLengths = metrics == BranchingMetrics.NONE ? null : new long[16]; // Histograma local dos ciclos.
         while (true) {
             int[] parent = new int[graph.size()];
             Arrays.fill(parent, -1);
@@ -79,20 +187,43 @@ public class Edmonds2 {
 
             List<Integer> contractVertices = new ArrayList<>();
             int u = R;
+            boolean stopped = false;
             while (parent[u] != R) {
+                if (budget != null && budget.charge(1)) {
+                    stopped = true;
+                    break;
+                }
                 contractVertices.add(u);
                 u = parent[u];
             }
+            if (stopped) {
+                break;
+            }
             contractVertices.add(R);
 
             int x_j = findMinimumValueEdge(contractVertices, H, graph);
 
             if (x_j != -1) {
                 H.removeIf(edge -> (edge.from == x_j || edge.to == x_j));
-                int S_j = contractComponent(x_j, parent, H, graph);
+                int S_j = contractComponent(x_j, parent, H, graph, members, chain, budget);
+                if (S_j == -1) {
+                    break;
+                }
                 parent[S_j] = R;
+                if (cycleLengths != null) {
+                    cycleLengths = Metrics.countCycle(cycleLengths, contractVertices.size());
+                }
             }
         }
+        Metrics.lap(metrics, "edmonds2", "root", t);
+        if (cycleLengths != null) {
+            metrics.contractions("edmonds2", cycleLengths);
+        }
+        if (budget != null && budget.isExhausted()) {
+            List<Edge> partial = partialBranching(H, graph.size(), budget);
+            H.clear();
+            H.addAll(partial);
+        }
     }
 
     public static void main(String[] args) {
@@ -102,8 +233,20 @@ public class Edmonds2 {
         graph.add(Arrays.asList(new Edge(0, 1,0), new Edge(3, 4,0)));
         graph.add(Collections.emptyList());
 
-        List<Edge> H = branchAndRoot(graph);
-        rootAlgorithm(H, graph);
+        // -Dedmonds.timeout.ms=N limita o tempo: ao esgotar, imprime o branching parcial.
+        long timeout = Long.getLong("edmonds.timeout.ms", 0);
+        SolveBudget budget = timeout > 0 ? SolveBudget.withTimeout(timeout * 1_000_000) : null;
+        List<Edge> H = branchAndRoot(graph, budget);
+        if (budget == null || !budget.isExhausted()) {
+            rootAlgorithm(H, graph, budget);
+        }
+        if (budget != null && budget.isExhausted()) {
+            System.out.println("Branching parcial (orçamento esgotado), peso " + budget.costBound() + ":");
+            for (Edge edge : H) {
+                System.out.println(edge.from + " -> " + edge.to);
+            }
+            return;
+        }
 
         System.out.println("Optimum Branching:");
         for (Edge edge : H) {
@@ -120,19 +263,27 @@ public class Edmonds2 {
         return -1;
     }
 
-    private static int contractComponent(int u, int[] parent, List<Edge> H, List<List<Edge>> graph) {
+    private static int contractComponent(int u, int[] parent, List<Edge> H, List<List<Edge>> graph, VertexSet members,
+                                         int[] chain, SolveBudget budget) {
+        // As arestas que saem da cadeia para fora dela entram em H; só a cadeia atual conta, não
+        // os vértices contraídos em iterações anteriores. Devolve -1, sem mexer em H, se o
+        // orçamento acabar no meio da cadeia.
         int S = u;
-        List<Integer> contractVertices = new ArrayList<>();
+        int size = 0;
         while (parent[u] != u) {
-            contractVertices.add(u);
+            if (budget != null && budget.charge(1)) {
+                return -1;
+            }
+            chain[size++] = u;
             u = parent[u];
         }
-        contractVertices.add(u);
+        chain[size++] = u;
+        members.reset(chain, size);
 
-        for (int v : contractVertices) {
-            for (Edge edge : graph.get(v)) {
+        for (int i = 0; i < size; i++) {
+            for (Edge edge : graph.get(chain[i])) {
                 int w = edge.to;
-                if (contractVertices.contains(w)) {
+                if (members.contains(w)) {
                     continue;
                 }
                 H.add(edge);
@@ -142,63 +293,113 @@ public class Edmonds2 {
         return S;
     }
 
-    private static void findCycles(int u, List<Integer> contractVertices, List<Edge> H, List<List<Edge>> graph) {
-        Set<Integer> cycleVertices = new HashSet<>(contractVertices);
+    private static void findCycles(int u, int[] cycle, int size, List<Edge> H, List<List<Edge>> graph, VertexSet members,
+                                   int[] predecessor, SolveBudget budget) {
+        members.reset(cycle, size);
         int S = u;
 
-        for (int v : contractVertices) {
-            for (Edge edge : graph.get(v)) {
-                if (cycleVertices.contains(edge.to)) {
-                    S = v;
+        for (int i = 0; i < size; i++) {
+            for (Edge edge : graph.get(cycle[i])) {
+                if (members.contains(edge.to)) {
+                    S = cycle[i];
                 }
             }
         }
 
-        while (S != u) {
-            for (Edge edge : H) {
-                if (contractVertices.contains(edge.from) && edge.to == S) {
-                    S = edge.from;
-                    break;
-                }
+        // Predecessor de cada vértice pela primeira aresta de H que sai do ciclo:
+        // uma única passada em H em vez de uma por passo da caminhada.
+        for (Edge edge : H) {
+            if (edge.to >= 0 && edge.to < predecessor.length && predecessor[edge.to] == -1 && members.contains(edge.from)) {
+                predecessor[edge.to] = edge.from;
+            }
+        }
+        int steps = 0;
+        while (S != u && predecessor[S] != -1 && steps++ < size) {
+            if (budget != null && budget.charge(1)) {
+                break;
+            }
+            S = predecessor[S];
+        }
+        for (Edge edge : H) {
+            if (edge.to >= 0 && edge.to < predecessor.length) {
+                predecessor[edge.to] = -1;
             }
         }
+        if (budget != null && budget.isExhausted()) {
+            return; // Nenhum custo foi alterado ainda.
+        }
+        if (S != u) {
+            // A caminhada repetiria vértices (ou pararia) sem nunca chegar a u.
+            throw new IllegalStateException("a caminhada pelos predecessores do ciclo de " + u + " não chega a ele");
+        }
 
-        for (int i = 0; i < contractVertices.size(); i++) {
-            int x_i = contractVertices.get(i);
-            int y_i = contractVertices.get((i + 1) % contractVertices.size());
-            int x_j = contractVertices.get((i + 1) % contractVertices.size());
+        // Custos reduzidos de cada par consecutivo do ciclo (x_i -> y_i) e de (y_i -> S), com os
+        // pares inversos compensados. O ajuste é aplicado aresta a aresta, a cada ocorrência em H
+        // (H pode repetir arestas, e arestas paralelas fora de H não mudam), então não cabe num
+        // deslocamento por super-vértice: continua O(|H|) por contração. O que muda em relação às
+        // quatro passadas em H por par é que as ocorrências são agrupadas numa passada só, e só as
+        // arestas com as duas pontas no ciclo entram no mapa.
+        Map<Long, List<Edge>> occurrences = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            int x = cycle[i];
+            int y = cycle[(i + 1) % size];
+            for (long key : new long[] {pair(x, y), pair(y, x), pair(y, S), pair(S, y)}) {
+                occurrences.putIfAbsent(key, new ArrayList<>());
+            }
+        }
+        for (Edge edge : H) {
+            if (!members.contains(edge.from) || !members.contains(edge.to)) {
+                continue; // Os pares ajustados ligam vértices do ciclo (S também é um deles).
+            }
+            List<Edge> list = occurrences.get(pair(edge.from, edge.to));
+            if (list != null) {
+                list.add(edge);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            int x_i = cycle[i];
+            int y_i = cycle[(i + 1) % size];
+            int x_j = cycle[(i + 1) % size];
             int y_j = S;
             int minEdgeValue = Integer.MAX_VALUE;
-
-            for (Edge edge : H) {
-                if (edge.from == x_i && edge.to == y_i) {
-                    minEdgeValue = Math.min(minEdgeValue, edge.cost);
-                }
+            for (Edge edge : occurrences.get(pair(x_i, y_i))) {
+                minEdgeValue = Math.min(minEdgeValue, edge.reduced);
             }
-
-            for (Edge edge : H) {
-                if (edge.from == x_j && edge.to == y_j) {
-                    minEdgeValue = Math.min(minEdgeValue, edge.cost);
-                }
+            for (Edge edge : occurrences.get(pair(x_j, y_j))) {
+                minEdgeValue = Math.min(minEdgeValue, edge.reduced);
             }
 
-            for (Edge edge : H) {
-                if (edge.from == x_i && edge.to == y_i) {
-                    edge.cost -= minEdgeValue;
-                }
-                if (edge.to == x_i && edge.from == y_i) {
-                    edge.cost += minEdgeValue;
+            long[] keys = {pair(x_i, y_i), pair(y_i, x_i), pair(x_j, y_j), pair(y_j, x_j)};
+            for (int k = 0; k < keys.length; k++) {
+                boolean repeated = false; // As ocorrências de um par repetido já foram ajustadas.
+                for (int l = 0; l < k; l++) {
+                    repeated |= keys[l] == keys[k];
                 }
-                if (edge.from == x_j && edge.to == y_j) {
-                    edge.cost -= minEdgeValue;
+                if (repeated) {
+                    continue;
                 }
-                if (edge.to == x_j && edge.from == y_j) {
-                    edge.cost += minEdgeValue;
+                for (Edge edge : occurrences.get(keys[k])) {
+                    if (edge.from == x_i && edge.to == y_i) {
+                        edge.reduced -= minEdgeValue;
+                    }
+                    if (edge.to == x_i && edge.from == y_i) {
+                        edge.reduced += minEdgeValue;
+                    }
+                    if (edge.from == x_j && edge.to == y_j) {
+                        edge.reduced -= minEdgeValue;
+                    }
+                    if (edge.to == x_j && edge.from == y_j) {
+                        edge.reduced += minEdgeValue;
+                    }
                 }
             }
         }
     }
 
+    private static long pair(int from, int to) {
+        return (long) from << 32 | (to & 0xFFFFFFFFL);
+    }
+
     private static void unblock(int u, List<Edge> H, List<List<Edge>> graph) {
         for (Edge edge : graph.get(u)) {
             int v = edge.to;
@@ -229,8 +430,8 @@ public class Edmonds2 {
         for (int x : contractVertices) {
             for (Edge edge : H) {
                 if (edge.from == x) {
-                    if (edge.cost < minEdgeValue) {
-                        minEdgeValue = edge.cost;
+                    if (edge.reduced < minEdgeValue) {
+                        minEdgeValue = edge.reduced;
                         x_j = x;
                     }
                 }
@@ -238,4 +439,37 @@ public class Edmonds2 {
         }
         return x_j;
     }
+
+    private static final class VertexSet {
+        // Conjunto de vértices com teste e limpeza O(1): v está no conjunto quando mark[v] == stamp.
+        // Vértices fora do grafo (arestas podem apontar para fora) nunca estão.
+        //
+        // Não é um union-find de propósito: o Edmonds2 nunca troca as pontas das arestas pelo
+        // super-vértice, e cada contração só olha a cadeia ou o ciclo atual. Um DisjointSet que
+        // acumula as contrações anteriores descarta arestas que o algoritmo põe em H, e limpar
+        // um a cada contração custaria O(n).
+        private final int[] mark;
+        private int stamp;
+
+        VertexSet(int numVertices) {
+            this.mark = new int[numVertices];
+        }
+
+        void reset(int[] vertices, int size) {
+            // Passa a conter exatamente vertices[0 .. size - 1].
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(mark, 0);
+                stamp = 1;
+            }
+            for (int i = 0; i < size; i++) {
+                if (vertices[i] >= 0 && vertices[i] < mark.length) {
+                    mark[vertices[i]] = stamp;
+                }
+            }
+        }
+
+        boolean contains(int v) {
+            return v >= 0 && v < mark.length && mark[v] == stamp;
+        }
+    }
 }
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 class Vertex {
     int id;
@@ -22,11 +23,28 @@ class Edge {
 
 class Graph {
     List<Vertex> vertices;
-    List<Edge> edges;
+    private final List<Edge> edges; // In insertion order; removed copies stay until edges() drops them.
+    private final Map<Vertex, List<Edge>> outgoing; // Outgoing edges of each vertex, in insertion order.
+    private final Map<Vertex, List<Edge>> incoming; // Incoming edges of each vertex, in insertion order.
+    private final Map<Vertex, List<Edge>> outgoingViews; // Read-only views handed out by the accessors.
+    private final Map<Vertex, List<Edge>> incomingViews;
+    private final Map<Edge, Integer> ids; // Dense id of each edge this graph has seen, in order of first sight.
+    private final BitSet members; // Ids of the edges in this graph.
+    private final BitSet examined; // Ids of the edges added to this graph or discarded by the algorithm.
+    private int[] copies = new int[16]; // Live copies of each edge id in edges.
+    private int[] removedCopies = new int[16]; // Copies removed but still in edges, dropped by the next edges().
+    private boolean compacted = true; // edges holds no removed copies.
 
     public Graph() {
         vertices = new ArrayList<>();
         edges = new ArrayList<>();
+        outgoing = new HashMap<>();
+        incoming = new HashMap<>();
+        outgoingViews = new HashMap<>();
+        incomingViews = new HashMap<>();
+        ids = new IdentityHashMap<>();
+        members = new BitSet();
+        examined = new BitSet();
     }
 
     public void addVertex(Vertex vertex) {
@@ -34,27 +52,95 @@ class Graph {
     }
 
     public void addEdge(Edge edge) {
+        int id = assignId(edge);
         edges.add(edge);
+        copies[id]++;
+        members.set(id);
+        examined.set(id);
+        adjacency(outgoing, outgoingViews, edge.u).add(edge);
+        adjacency(incoming, incomingViews, edge.v).add(edge);
     }
 
-    public List<Edge> getOutgoingEdges(Vertex vertex) {
-        List<Edge> outgoingEdges = new ArrayList<>();
-        for (Edge edge : edges) {
-            if (edge.u == vertex) {
-                outgoingEdges.add(edge);
+    public void removeEdge(Edge edge) {
+        // O(degree): the copy leaves edges lazily, so a run of removals costs one pass over the list.
+        Integer known = ids.get(edge);
+        if (known != null && copies[known] > 0) {
+            int id = known;
+            copies[id]--;
+            removedCopies[id]++;
+            compacted = false;
+            members.clear(id);
+            examined.clear(id);
+            outgoing.get(edge.u).remove(edge);
+            incoming.get(edge.v).remove(edge);
+        }
+    }
+
+    public List<Edge> edges() {
+        // Edges in insertion order. Each removal took out the first copy still present, as
+        // ArrayList.remove would have.
+        if (!compacted) {
+            int size = 0;
+            for (Edge edge : edges) {
+                int id = ids.get(edge);
+                if (removedCopies[id] > 0) {
+                    removedCopies[id]--;
+                } else {
+                    edges.set(size++, edge);
+                }
             }
+            edges.subList(size, edges.size()).clear();
+            compacted = true;
         }
-        return outgoingEdges;
+        return edges;
     }
 
-    public List<Edge> getIncomingEdges(Vertex vertex) {
-        List<Edge> incomingEdges = new ArrayList<>();
-        for (Edge edge : edges) {
-            if (edge.v == vertex) {
-                incomingEdges.add(edge);
+    public boolean containsEdge(Edge edge) {
+        Integer id = ids.get(edge);
+        return id != null && members.get(id);
+    }
+
+    public void markExamined(Edge edge) {
+        examined.set(assignId(edge));
+    }
+
+    public boolean isExamined(Edge edge) {
+        Integer id = ids.get(edge);
+        return id != null && examined.get(id);
+    }
+
+    private int assignId(Edge edge) {
+        // Ids are per graph, so the bitsets only grow with the edges this graph has seen.
+        Integer id = ids.get(edge);
+        if (id == null) {
+            id = ids.size();
+            ids.put(edge, id);
+            if (id == copies.length) {
+                copies = Arrays.copyOf(copies, 2 * id);
+                removedCopies = Arrays.copyOf(removedCopies, 2 * id);
             }
         }
-        return incomingEdges;
+        return id;
+    }
+
+    public List<Edge> getOutgoingEdges(Vertex vertex) {
+        // Read-only view, O(1) and without allocation.
+        return outgoingViews.getOrDefault(vertex, Collections.emptyList());
+    }
+
+    public List<Edge> getIncomingEdges(Vertex vertex) {
+        // Read-only view, O(1) and without allocation.
+        return incomingViews.getOrDefault(vertex, Collections.emptyList());
+    }
+
+    private static List<Edge> adjacency(Map<Vertex, List<Edge>> lists, Map<Vertex, List<Edge>> views, Vertex vertex) {
+        List<Edge> list = lists.get(vertex);
+        if (list == null) {
+            list = new ArrayList<>();
+            lists.put(vertex, list);
+            views.put(vertex, Collections.unmodifiableList(list));
+        }
+        return list;
     }
 
     public void modifyEdgeValue(Edge edge, int newValue) {
@@ -63,43 +149,322 @@ class Graph {
 }
 
 public class Edmonds3 {
+    public static Graph fromCsr(CsrGraph csr) {
+        Graph graph = new Graph();
+        for (int v = 0; v < csr.numVertices(); v++) {
+            graph.addVertex(new Vertex(v));
+        }
+        for (int e = 0; e < csr.numEdges(); e++) {
+            graph.addEdge(new Edge(graph.vertices.get(csr.source(e)), graph.vertices.get(csr.target(e)), csr.cost(e)));
+        }
+        return graph;
+    }
+
     public static Graph branchAlgorithm(Graph graph) {
-        Graph H = new Graph(); // Create a new graph for H
-    
-        while (true) {
-            Set<Vertex> S = findRootComponent(graph, H);  // Step 1: Find a root component S
-            if (S == null) {
-                break;
+        // Sequential; pass a pool to run the components concurrently.
+        return branchAlgorithm(graph, null);
+    }
+
+    public static Graph branchAlgorithm(Graph graph, ForkJoinPool pool) {
+        return branchAlgorithm(graph, pool, null);
+    }
+
+    static Graph branchAlgorithm(Graph graph, ForkJoinPool pool, SolveBudget budget) {
+        // Root components come from a worklist instead of a rescan of graph.vertices. A step only
+        // touches edges of the weakly connected component of its root, so the components run
+        // concurrently on the pool (null = sequential), each against its own view of H. Their steps
+        // are then replayed into H ordered by root position, which is the order a sequential run
+        // takes them in, so H comes out the same. With a budget (null = unlimited) every run stops once
+        // it is spent, and H is cut down to a feasible branching.
+        BranchingMetrics metrics = Metrics.get();
+        long t = Metrics.start(metrics);
+        Worklist worklist = new Worklist(graph);
+        List<ComponentRun> runs = worklist.components(metrics, budget);
+        OptimumBranching.parallelFor(pool, runs.size(), i -> runs.get(i).run());
+
+        List<Step> steps = new ArrayList<>();
+        long scanned = 0; // Edges looked at while searching for the largest unexamined edge.
+        long[] cycleLengths = new long[0]; // The runs' histograms, reported once.
+        for (ComponentRun run : runs) {
+            steps.addAll(run.steps);
+            scanned += run.scanned;
+            if (run.cycleLengths != null) {
+                if (run.cycleLengths.length > cycleLengths.length) {
+                    cycleLengths = Arrays.copyOf(cycleLengths, run.cycleLengths.length);
+                }
+                for (int length = 0; length < run.cycleLengths.length; length++) {
+                    cycleLengths[length] += run.cycleLengths[length];
+                }
             }
-            Edge largestEdge = findLargestUnexaminedEdge(graph, S, H); // Step 2: Find the largest unexamined edge
-            if (largestEdge == null) {
+        }
+        steps.sort(Comparator.comparingInt(step -> step.root)); // Stable: keeps the order inside a component.
+        Graph H = new Graph(); // Create a new graph for H
+        for (Step step : steps) {
+            step.replay(H);
+        }
+        Metrics.lap(metrics, "edmonds3", "branch", t);
+        metrics.edgesScanned("edmonds3", scanned);
+        if (metrics != BranchingMetrics.NONE) {
+            metrics.contractions("edmonds3", cycleLengths);
+        }
+        return budget != null && budget.isExhausted() ? partialBranching(H, budget) : H;
+    }
+
+    private static Graph partialBranching(Graph H, SolveBudget budget) {
+        // Keeps the edges of H, in order, that give a vertex its first parent without closing a
+        // cycle; the weight of what is left goes to the budget as the bound.
+        Map<Vertex, Integer> position = new IdentityHashMap<>();
+        Graph branching = new Graph();
+        for (Vertex vertex : H.vertices) {
+            position.putIfAbsent(vertex, position.size());
+            branching.addVertex(vertex);
+        }
+        for (Edge edge : H.edges()) {
+            position.putIfAbsent(edge.u, position.size());
+            position.putIfAbsent(edge.v, position.size());
+        }
+        DisjointSet trees = new DisjointSet(position.size());
+        boolean[] hasParent = new boolean[position.size()];
+        long weight = 0;
+        for (Edge edge : H.edges()) {
+            int u = position.get(edge.u);
+            int v = position.get(edge.v);
+            if (hasParent[v] || trees.connected(u, v)) {
                 continue;
             }
-            Vertex u = largestEdge.u;
-            Vertex v = largestEdge.v;
-            if (S.contains(u)) {
-                // u is already in the component, discard the edge.
-            } else {
-                Set<Vertex> W = findWeaklyConnectedComponent(graph, H, v); // Step 4: Find the weakly connected component W
-                if (!W.contains(u)) {
-                     // Step 4.1: If u is not in W, add (u,v) to H
-                    H.addVertex(u); // Add vertices to H if not already present
-                    H.addVertex(v);
-                    H.addEdge(largestEdge); // Add the edge to H
+            hasParent[v] = true;
+            trees.union(u, v);
+            branching.addEdge(edge);
+            weight += edge.weight;
+        }
+        budget.record(weight);
+        return branching;
+    }
+
+    private static final class Worklist {
+        // Shared state of the root-component worklist. Each array entry belongs to exactly one
+        // weakly connected component, so the component runs never write the same entry.
+        final Map<Vertex, Integer> position = new IdentityHashMap<>(); // First index of each vertex in graph.vertices; endpoints missing from the list come after it.
+        final Map<Edge, Integer> index = new IdentityHashMap<>(); // Index of each edge in graph.edges.
+        final int eligible; // Positions below this can be root components (the vertices findRootComponent would scan).
+        final boolean[] examined; // Edges examined in H, by index.
+        final int[] pending; // Unexamined incoming edges of positive weight, by position; > 0 means a root component.
+        final int[] local; // Index of each position inside its component.
+        private final Graph graph;
+
+        Worklist(Graph graph) {
+            this.graph = graph;
+            for (Vertex vertex : graph.vertices) {
+                position.putIfAbsent(vertex, position.size());
+            }
+            eligible = position.size();
+            for (Edge edge : graph.edges()) {
+                index.putIfAbsent(edge, index.size());
+                position.putIfAbsent(edge.u, position.size());
+                position.putIfAbsent(edge.v, position.size());
+            }
+            examined = new boolean[index.size()];
+            pending = new int[position.size()];
+            local = new int[position.size()];
+            for (Edge edge : index.keySet()) {
+                if (edge.weight > 0) {
+                    pending[position.get(edge.v)]++;
+                }
+            }
+        }
+
+        List<ComponentRun> components(BranchingMetrics metrics, SolveBudget budget) {
+            // One run per weakly connected component that has a root component, members in position order.
+            DisjointSet components = new DisjointSet(position.size());
+            for (Edge edge : index.keySet()) {
+                components.union(position.get(edge.u), position.get(edge.v));
+            }
+            Vertex[] byPosition = new Vertex[position.size()];
+            for (Map.Entry<Vertex, Integer> entry : position.entrySet()) {
+                byPosition[entry.getValue()] = entry.getKey();
+            }
+            Map<Integer, List<Vertex>> members = new LinkedHashMap<>();
+            for (int p = 0; p < byPosition.length; p++) {
+                List<Vertex> list = members.computeIfAbsent(components.find(p), key -> new ArrayList<>());
+                local[p] = list.size();
+                list.add(byPosition[p]);
+            }
+            List<ComponentRun> runs = new ArrayList<>();
+            for (List<Vertex> list : members.values()) {
+                ComponentRun run = new ComponentRun(this, graph, list, metrics, budget);
+                if (!run.roots.isEmpty()) {
+                    runs.add(run);
+                }
+            }
+            return runs;
+        }
+    }
+
+    private static final class Step {
+        final int root; // Position of the root component the step was taken for.
+        final List<Vertex> vertices = new ArrayList<>(); // Vertices added to H, in order.
+        final List<Edge> edges = new ArrayList<>(); // Edges added to H, in order.
+        final List<Edge> discarded = new ArrayList<>(); // Edges marked examined without entering H.
+
+        Step(int root) {
+            this.root = root;
+        }
+
+        void replay(Graph H) {
+            // Vertices and edges keep their order; the examined marks do not depend on it.
+            for (Vertex vertex : vertices) {
+                H.addVertex(vertex);
+            }
+            for (Edge edge : edges) {
+                H.addEdge(edge);
+            }
+            for (Edge edge : discarded) {
+                H.markExamined(edge);
+            }
+        }
+    }
+
+    private interface HBuilder {
+        // What one step of the branch algorithm reads from and writes to H.
+        void addVertex(Vertex vertex);
+
+        void addEdge(Edge edge);
+
+        void markExamined(Edge edge);
+
+        boolean isExamined(Edge edge);
+
+        void modifyEdgeValue(Edge edge, int newValue);
+    }
+
+    private static final class ComponentRun implements HBuilder {
+        // H as seen from one weakly connected component: examined marks go to the worklist and every
+        // change is also logged in the step of the current root component, to be replayed into the
+        // real H. Marking an edge examined (or changing its weight) updates the count of its target,
+        // so the next root component is the lowest set bit instead of a scan over all vertices.
+        private final Worklist worklist;
+        private final Graph graph;
+        private final List<Vertex> members; // Vertices of the component, in position order.
+        private final SolveBudget budget; // null = unlimited.
+        final BitSet roots = new BitSet(); // Local indices of the root components.
+        final List<Step> steps = new ArrayList<>();
+        long scanned; // Edges looked at while searching for the largest unexamined edge.
+        long[] cycleLengths; // Local histogram of the contracted sequence lengths (null = no metrics).
+        private Step step;
+
+        ComponentRun(Worklist worklist, Graph graph, List<Vertex> members, BranchingMetrics metrics, SolveBudget budget) {
+            this.worklist = worklist;
+            this.graph = graph;
+            this.members = members;
+            this.cycleLengths = metrics == BranchingMetrics.NONE ? null : new long[16];
+            this.budget = budget;
+            for (int i = 0; i < members.size(); i++) {
+                int p = worklist.position.get(members.get(i));
+                if (p < worklist.eligible && worklist.pending[p] > 0) {
+                    roots.set(i);
+                }
+            }
+        }
+
+        void run() {
+            HBuilder H = this;
+            for (int next = roots.nextSetBit(0); next >= 0; next = roots.nextSetBit(0)) {
+                Vertex root = members.get(next);
+                if (budget != null && budget.charge(1 + graph.getOutgoingEdges(root).size())) {
+                    return;
+                }
+                step = new Step(worklist.position.get(root));
+                steps.add(step);
+                Set<Vertex> S = Collections.singleton(root); // Step 1: Take the next root component S
+                scanned += graph.getOutgoingEdges(root).size();
+                Edge largestEdge = findLargestUnexaminedEdge(graph, S, H); // Step 2: Find the largest unexamined edge
+                if (largestEdge == null) {
+                    // Nothing can change any more, so the sequential scan would pick S forever.
+                    throw new IllegalStateException("root component " + root.id + " has no unexamined outgoing edge");
+                }
+                Vertex u = largestEdge.u;
+                Vertex v = largestEdge.v;
+                if (S.contains(u)) {
+                    // u is already in the component, discard the edge.
+                    H.markExamined(largestEdge);
                 } else {
-                    List<Edge> sequence = findSequence(graph, H, u, v, S, W);  // Step 5: Find the sequence
-                    Edge minEdge = findMinEdge(sequence);  // Step 6: Find the minimum edge in the sequence
-                    H.addEdge(minEdge); // Add the minimum edge to H // Step 7: Add (u,v) to H (combine S1, ..., Sk into a single component)
-                    for (Edge e : sequence) {
-                         // Step 7: Modify the values of unexamined edges
-                        if (e != minEdge) {
-                            graph.modifyEdgeValue(e, minEdge.weight);
+                    Set<Vertex> W = findWeaklyConnectedComponent(graph, H, v); // Step 4: Find the weakly connected component W
+                    if (!W.contains(u)) {
+                         // Step 4.1: If u is not in W, add (u,v) to H
+                        H.addVertex(u); // Add vertices to H if not already present
+                        H.addVertex(v);
+                        H.addEdge(largestEdge); // Add the edge to H
+                    } else {
+                        List<Edge> sequence = findSequence(graph, H, u, v, S, W, budget);  // Step 5: Find the sequence
+                        if (sequence == null) {
+                            return; // The budget ran out.
+                        }
+                        Edge minEdge = findMinEdge(sequence);  // Step 6: Find the minimum edge in the sequence
+                        if (cycleLengths != null) {
+                            cycleLengths = Metrics.countCycle(cycleLengths, sequence.size());
+                        }
+                        H.addEdge(minEdge); // Add the minimum edge to H // Step 7: Add (u,v) to H (combine S1, ..., Sk into a single component)
+                        for (Edge e : sequence) {
+                             // Step 7: Modify the values of unexamined edges (through H, so the worklist sees them)
+                            if (e != minEdge) {
+                                H.modifyEdgeValue(e, minEdge.weight);
+                            }
                         }
                     }
                 }
             }
         }
-        return H;
+
+        @Override
+        public void addVertex(Vertex vertex) {
+            step.vertices.add(vertex);
+        }
+
+        @Override
+        public void addEdge(Edge edge) {
+            examine(edge);
+            step.edges.add(edge);
+        }
+
+        @Override
+        public void markExamined(Edge edge) {
+            examine(edge);
+            step.discarded.add(edge);
+        }
+
+        @Override
+        public boolean isExamined(Edge edge) {
+            return worklist.examined[worklist.index.get(edge)];
+        }
+
+        @Override
+        public void modifyEdgeValue(Edge edge, int newValue) {
+            boolean counted = counts(edge);
+            edge.weight = newValue;
+            update(edge, counted);
+        }
+
+        private void examine(Edge edge) {
+            boolean counted = counts(edge);
+            worklist.examined[worklist.index.get(edge)] = true;
+            update(edge, counted);
+        }
+
+        private boolean counts(Edge edge) {
+            return edge.weight > 0 && !isExamined(edge);
+        }
+
+        private void update(Edge edge, boolean counted) {
+            // Keeps the count of edge.v, and its place in the worklist, in step with the edge.
+            if (counted == counts(edge)) {
+                return;
+            }
+            int p = worklist.position.get(edge.v);
+            worklist.pending[p] += counted ? -1 : 1;
+            if (p < worklist.eligible) {
+                roots.set(worklist.local[p], worklist.pending[p] > 0);
+            }
+        }
     }
 
     private static Set<Vertex> findRootComponent(Graph graph, Graph H) {
@@ -112,7 +477,7 @@ public class Edmonds3 {
             boolean hasUnexaminedEdge = false;
             
             for (Edge edge : incomingEdges) {
-                if (!H.edges.contains(edge) && edge.weight > 0) {
+                if (!H.isExamined(edge) && edge.weight > 0) {
                     hasUnexaminedEdge = true;
                     break;
                 }
@@ -127,7 +492,7 @@ public class Edmonds3 {
     }
     
 
-    private static Edge findLargestUnexaminedEdge(Graph graph, Set<Vertex> S, Graph H) {
+    private static Edge findLargestUnexaminedEdge(Graph graph, Set<Vertex> S, HBuilder H) {
         // Implement the logic for finding the largest unexamined edge as described in the algorithm.
         Edge largestEdge = null;
         int largestWeight = -1;
@@ -135,7 +500,7 @@ public class Edmonds3 {
         for (Vertex vertex : S) {
             List<Edge> outgoingEdges = graph.getOutgoingEdges(vertex);
             for (Edge edge : outgoingEdges) {
-                if (!H.edges.contains(edge) && edge.weight > largestWeight) {
+                if (!H.isExamined(edge) && edge.weight > largestWeight) {
                     largestWeight = edge.weight;
                     largestEdge = edge;
                 }
@@ -144,7 +509,7 @@ public class Edmonds3 {
         return largestEdge;
     }
 
-    private static Set<Vertex> findWeaklyConnectedComponent(Graph graph, Graph H, Vertex v) {
+    private static Set<Vertex> findWeaklyConnectedComponent(Graph graph, HBuilder H, Vertex v) {
         // Implement the logic for finding the weakly connected component as described in the algorithm.
         Set<Vertex> component = new HashSet<>();
         Queue<Vertex> queue = new LinkedList<>();
@@ -158,7 +523,7 @@ public class Edmonds3 {
             for (Edge edge : outgoingEdges) {
                 Vertex nextVertex = edge.v;
 
-                if (!component.contains(nextVertex) && !H.edges.contains(edge) && edge.weight > 0) {
+                if (!component.contains(nextVertex) && !H.isExamined(edge) && edge.weight > 0) {
                     component.add(nextVertex);
                     queue.add(nextVertex);
                 }
@@ -168,15 +533,19 @@ public class Edmonds3 {
         return component;
     }
 
-    private static List<Edge> findSequence(Graph graph, Graph H, Vertex u, Vertex v, Set<Vertex> S, Set<Vertex> W) {
+    private static List<Edge> findSequence(Graph graph, HBuilder H, Vertex u, Vertex v, Set<Vertex> S, Set<Vertex> W, SolveBudget budget) {
         // Implement the logic for finding the sequence as described in the algorithm.
+        // Returns null if the budget (null = unlimited) runs out first.
         List<Edge> sequence = new ArrayList<>();
         Vertex currentVertex = u;
 
         while (!currentVertex.equals(v)) {
             List<Edge> outgoingEdges = graph.getOutgoingEdges(currentVertex);
+            if (budget != null && budget.charge(1 + outgoingEdges.size())) {
+                return null;
+            }
             for (Edge edge : outgoingEdges) {
-                if (!H.edges.contains(edge) && edge.v.equals(v)) {
+                if (!H.isExamined(edge) && edge.v.equals(v)) {
                     sequence.add(edge);
                     currentVertex = edge.u;
                     break;
@@ -201,27 +570,44 @@ public class Edmonds3 {
     }
 
     public static Graph rootAlgorithm(Graph graph, Graph H) {
+        return rootAlgorithm(graph, H, null);
+    }
+
+    static Graph rootAlgorithm(Graph graph, Graph H, SolveBudget budget) {
+        // With a budget (null = unlimited) it stops once the budget is spent and returns the feasible
+        // branching left in H, as branchAlgorithm does.
+        BranchingMetrics metrics = Metrics.get();
+        long t = Metrics.start(metrics);
         while (true) {
             Set<Vertex> R = findRootComponent(graph, H);  // Step 1: Find a root component R
             if (R == null) {
                 break;
             }
-            List<Edge> sequence = findSequence(graph, H, new ArrayList<Vertex>(R));  // Step 2: Find the sequence
+            List<Edge> sequence = findSequence(graph, H, new ArrayList<Vertex>(R), budget);  // Step 2: Find the sequence
+            if (sequence == null) {
+                Metrics.lap(metrics, "edmonds3", "root", t);
+                return partialBranching(H, budget);
+            }
             Edge minEdge = findMinEdge(sequence);  // Step 3: Find the minimum edge in the sequence
-            H.edges.remove(minEdge);  // Step 4: Delete the minimum edge to make R a root component
+            H.removeEdge(minEdge);  // Step 4: Delete the minimum edge to make R a root component
         }
+        Metrics.lap(metrics, "edmonds3", "root", t);
         return H;
     }
 
-    private static List<Edge> findSequence(Graph graph, Graph H, ArrayList<Vertex> arrayList) {
+    private static List<Edge> findSequence(Graph graph, Graph H, ArrayList<Vertex> arrayList, SolveBudget budget) {
         // Implement the logic for finding the sequence as described in the algorithm.
+        // Returns null if the budget (null = unlimited) runs out first.
         List<Edge> sequence = new ArrayList<>();
         Vertex currentVertex = arrayList.get(0);
 
         while (!currentVertex.equals(arrayList.get(arrayList.size()-1))) {
             List<Edge> outgoingEdges = graph.getOutgoingEdges(currentVertex);
+            if (budget != null && budget.charge(1 + outgoingEdges.size())) {
+                return null;
+            }
             for (Edge edge : outgoingEdges) {
-                if (!H.edges.contains(edge) && edge.v.equals(arrayList.get(arrayList.size()-1))) {
+                if (!H.isExamined(edge) && edge.v.equals(arrayList.get(arrayList.size()-1))) {
                     sequence.add(edge);
                     currentVertex = edge.u;
                     break;
@@ -248,8 +634,14 @@ public class Edmonds3 {
         graph.addEdge(e2);
         graph.addEdge(e3);
 
-        Graph result = branchAlgorithm(graph);
-        for (Edge e : result.edges) {
+        Graph result;
+        try {
+            result = branchAlgorithm(graph);
+        } catch (IllegalStateException e) {
+            System.out.println("No branching: " + e.getMessage());
+            return;
+        }
+        for (Edge e : result.edges()) {
             System.out.println("Edge: " + e.u.id + " - " + e.v.id + " Weight: " + e.weight);
         }
     }
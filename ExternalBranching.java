@@ -0,0 +1,274 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+// Branching ótimo sobre um ExternalEdgeFile, para grafos cujas arestas não cabem
+// no heap. Só o estado por vértice (O(V)) fica em memória; as arestas são lidas
+// do arquivo mapeado em passadas sequenciais.
+//
+// Cada rodada escolhe a aresta mínima de entrada (pelo custo reduzido) de cada
+// super-vértice que ainda não tem uma; os ciclos formados pelas escolhas são
+// contraídos em novos super-vértices. A primeira rodada é uma passada pelo
+// arquivo inteiro, que também grava um índice reverso temporário (arestas por
+// destino, ExternalEdgeFile.InEdges) com as contagens da busca de alcance. Da
+// segunda rodada em diante só as arestas que entram nos ciclos recém-contraídos
+// são lidas, pelo índice e pelas listas de vértices de cada super-vértice; as
+// demais escolhas continuam válidas. O custo reduzido vem de um
+// union-find com potenciais: o potencial de v é a soma dos descontos dos
+// super-vértices que o contêm. A expansão desmonta a árvore de contração
+// registrada, como em MultiRootBranching.
+final class ExternalBranching {
+    private final ExternalEdgeFile file; // Arestas, lidas do arquivo mapeado.
+    private final int numVertices; // Número de vértices no grafo.
+
+    ExternalBranching(ExternalEdgeFile file) {
+        this.file = file;
+        this.numVertices = file.numVertices();
+    }
+
+    long[] solve(int root) throws IOException {
+        // Devolve a aresta de entrada (posição no arquivo) de cada vértice; -1 para a raiz e
+        // para os vértices inalcançáveis.
+        BranchingMetrics metrics = Metrics.get();
+        long t = Metrics.start(metrics);
+        long[] inEnd = new long[numVertices]; // Grau de entrada; depois, fim das entradas de cada vértice no índice.
+        boolean[] reachable = reachableFrom(root, inEnd);
+        long numInEdges = 0;
+        for (int v = 0; v < numVertices; v++) {
+            long degree = inEnd[v];
+            inEnd[v] = numInEdges; // Início por enquanto; a primeira rodada avança até o fim.
+            numInEdges += degree;
+        }
+        t = Metrics.lap(metrics, "external", "reachability", t);
+        try (ExternalEdgeFile.InEdges index = new ExternalEdgeFile.InEdges(numInEdges)) {
+            return solve(root, reachable, index, inEnd, metrics, t);
+        }
+    }
+
+    private long[] solve(int root, boolean[] reachable, ExternalEdgeFile.InEdges index, long[] inEnd,
+                         BranchingMetrics metrics, long t) {
+
+        int maxNodes = Math.max(1, 2 * numVertices - 1);
+        long[] inEdge = new long[maxNodes]; // Aresta de entrada escolhida para cada nó.
+        int[] inSource = new int[maxNodes]; // Vértice original de onde essa aresta sai.
+        int[] inTarget = new int[maxNodes]; // Vértice original em que essa aresta entra.
+        long[] key = new long[maxNodes]; // Custo reduzido da aresta escolhida.
+        int[] treeParent = new int[maxNodes]; // Pai na árvore de contração (-1 no topo).
+        int[] uf = new int[maxNodes]; // Union-find; o representante é o nó mais recente.
+        long[] potential = new long[maxNodes]; // Desconto acumulado até o pai no union-find.
+        boolean[] pending = new boolean[maxNodes]; // O nó ainda precisa de uma aresta de entrada.
+        int[] mark = new int[maxNodes]; // Carimbo do caminho que visitou cada nó.
+        int[] firstMember = new int[maxNodes]; // Vértices originais de cada nó, em lista encadeada.
+        int[] lastMember = new int[maxNodes];
+        int[] nextMember = new int[numVertices];
+        Arrays.fill(inEdge, -1);
+        Arrays.fill(treeParent, -1);
+        for (int x = 0; x < maxNodes; x++) {
+            uf[x] = x;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            firstMember[v] = v;
+            lastMember[v] = v;
+            nextMember[v] = -1;
+        }
+        int[] fresh = new int[maxNodes]; // Nós pendentes desta rodada.
+        int numFresh = 0;
+        for (int v = 0; v < numVertices; v++) {
+            if (v != root && reachable[v]) {
+                pending[v] = true;
+                fresh[numFresh++] = v;
+            }
+        }
+
+        int next = numVertices;
+        int stamp = 0;
+        long scanned = 0;
+        long[] cycleLengths = metrics == BranchingMetrics.NONE ? null : new long[16]; // Histograma local dos ciclos.
+        boolean firstRound = true;
+        while (numFresh > 0) {
+            if (firstRound) {
+                // Passada de streaming: aresta mínima de entrada de cada vértice, e o índice reverso.
+                for (int u = 0; u < numVertices; u++) {
+                    if (!reachable[u]) {
+                        continue;
+                    }
+                    for (long e = file.firstOutEdge(u), end = file.endOutEdge(u); e < end; e++) {
+                        int v = file.target(e);
+                        index.put(inEnd[v]++, e, u);
+                        if (pending[v] && v != u) {
+                            scanned++;
+                            choose(v, e, u, v, file.cost(e), inEdge, inSource, inTarget, key);
+                        }
+                    }
+                }
+                firstRound = false;
+            } else {
+                // Só as arestas que entram nos ciclos novos, lidas pelo índice.
+                for (int i = 0; i < numFresh; i++) {
+                    int c = fresh[i];
+                    for (int v = firstMember[c]; v >= 0; v = nextMember[v]) {
+                        find(uf, potential, v); // Deixa em potential[v] o desconto até c.
+                        for (long j = v == 0 ? 0 : inEnd[v - 1]; j < inEnd[v]; j++) {
+                            int u = index.source(j);
+                            if (find(uf, potential, u) == c) {
+                                continue;
+                            }
+                            long e = index.edge(j);
+                            scanned++;
+                            choose(c, e, u, v, file.cost(e) - potential[v], inEdge, inSource, inTarget, key);
+                        }
+                    }
+                }
+            }
+
+            // Ciclos entre as escolhas: todo ciclo novo passa por algum nó desta rodada.
+            int count = numFresh;
+            numFresh = 0;
+            int roundStamp = stamp;
+            for (int i = 0; i < count; i++) {
+                pending[fresh[i]] = false;
+            }
+            for (int i = 0; i < count; i++) {
+                int x = find(uf, potential, fresh[i]);
+                int walk = ++stamp;
+                while (x >= 0 && mark[x] <= roundStamp) {
+                    mark[x] = walk;
+                    x = inEdge[x] < 0 ? -1 : find(uf, potential, inSource[x]);
+                }
+                if (x < 0 || mark[x] != walk) {
+                    continue; // Chegou à raiz, a um nó sem aresta ou a um caminho já examinado.
+                }
+                // x está em um ciclo: contrai x -> ... -> x em um novo nó c.
+                int c = next++;
+                int length = 0;
+                int y = x;
+                firstMember[c] = -1;
+                while (y != c) {
+                    int previous = find(uf, potential, inSource[y]); // Vira c depois que x é ligado a c.
+                    if (firstMember[c] < 0) {
+                        firstMember[c] = firstMember[y];
+                    } else {
+                        nextMember[lastMember[c]] = firstMember[y];
+                    }
+                    lastMember[c] = lastMember[y];
+                    treeParent[y] = c;
+                    uf[y] = c;
+                    potential[y] = key[y]; // As arestas que entram em y passam a custar key[y] a menos.
+                    y = previous;
+                    length++;
+                }
+                mark[c] = walk;
+                if (cycleLengths != null) {
+                    cycleLengths = Metrics.countCycle(cycleLengths, length);
+                }
+                pending[c] = true;
+                fresh[numFresh++] = c;
+            }
+            t = Metrics.lap(metrics, "external", "round", t);
+        }
+        metrics.edgesScanned("external", scanned);
+        if (cycleLengths != null) {
+            metrics.contractions("external", cycleLengths);
+        }
+
+        // Expansão: desmonta a árvore a partir da raiz; cada nó que fica no topo entra pela sua aresta.
+        int numNodes = next;
+        int[] childOffsets = new int[numNodes + 1];
+        for (int x = 0; x < numNodes; x++) {
+            if (treeParent[x] >= 0) {
+                childOffsets[treeParent[x] + 1]++;
+            }
+        }
+        for (int x = 0; x < numNodes; x++) {
+            childOffsets[x + 1] += childOffsets[x];
+        }
+        int[] children = new int[Math.max(1, childOffsets[numNodes])];
+        int[] fill = Arrays.copyOf(childOffsets, numNodes);
+        for (int x = 0; x < numNodes; x++) {
+            if (treeParent[x] >= 0) {
+                children[fill[treeParent[x]]++] = x;
+            }
+        }
+        long[] parentEdge = new long[numVertices];
+        Arrays.fill(parentEdge, -1);
+        boolean[] removed = new boolean[numNodes];
+        int[] stack = new int[numNodes];
+        int top = 0;
+        for (int x = 0; x < numNodes; x++) {
+            if (treeParent[x] < 0 && inEdge[x] >= 0) {
+                stack[top++] = x; // Topos da floresta de contração.
+            }
+        }
+        while (top > 0) {
+            int c = stack[--top];
+            if (removed[c]) {
+                continue;
+            }
+            int v = inTarget[c];
+            parentEdge[v] = inEdge[c];
+            for (int y = v; y >= 0 && !removed[y]; y = treeParent[y]) {
+                removed[y] = true;
+                for (int i = childOffsets[y]; i < childOffsets[y + 1]; i++) {
+                    if (!removed[children[i]]) {
+                        stack[top++] = children[i];
+                    }
+                }
+            }
+        }
+        Metrics.lap(metrics, "external", "expand", t);
+        return parentEdge;
+    }
+
+    private static void choose(int x, long e, int u, int v, long reduced, long[] inEdge, int[] inSource, int[] inTarget,
+                               long[] key) {
+        // Fica com e (u -> v, custo reduzido reduced) como entrada do nó x se ela for melhor; empate
+        // pela posição no arquivo.
+        if (inEdge[x] < 0 || reduced < key[x] || (reduced == key[x] && e < inEdge[x])) {
+            inEdge[x] = e;
+            inSource[x] = u;
+            inTarget[x] = v;
+            key[x] = reduced;
+        }
+    }
+
+    private boolean[] reachableFrom(int root, long[] inDegree) {
+        // Busca em profundidade direto sobre o arquivo (as arestas estão agrupadas pela origem);
+        // conta em inDegree as arestas que saem de vértices alcançáveis.
+        boolean[] reachable = new boolean[numVertices];
+        int[] stack = new int[numVertices];
+        int top = 0;
+        reachable[root] = true;
+        stack[top++] = root;
+        while (top > 0) {
+            int u = stack[--top];
+            for (long e = file.firstOutEdge(u), end = file.endOutEdge(u); e < end; e++) {
+                int v = file.target(e);
+                inDegree[v]++;
+                if (!reachable[v]) {
+                    reachable[v] = true;
+                    stack[top++] = v;
+                }
+            }
+        }
+        return reachable;
+    }
+
+    private static int find(int[] uf, long[] potential, int x) {
+        // Representante de x. Comprime o caminho mantendo em potential[x] o desconto total
+        // de x até o representante (exclusive).
+        int r = x;
+        long d = 0;
+        while (uf[r] != r) {
+            d += potential[r];
+            r = uf[r];
+        }
+        while (x != r) {
+            int parent = uf[x];
+            long own = potential[x];
+            potential[x] = d;
+            uf[x] = r;
+            d -= own;
+            x = parent;
+        }
+        return r;
+    }
+}
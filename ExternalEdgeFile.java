@@ -0,0 +1,326 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Arquivo de arestas para grafos maiores que o heap (veja ExternalBranching).
+//
+// Layout (little-endian):
+//   cabeçalho: magic "EDMX" (int), versão (int), numVertices (int), reservado (int), numEdges (long)
+//   offsets[numVertices + 1] (long): as arestas que saem de v são [offsets[v], offsets[v + 1])
+//   registros de 8 bytes, agrupados pela origem: destino (int), custo (int)
+//
+// O arquivo é mapeado em segmentos de 1 GiB, então o número de arestas pode passar
+// de 2^31; nada dele vai para o heap. A conversão a partir do texto faz duas passadas
+// de streaming (contagem dos graus e distribuição) e guarda só O(V) no heap.
+final class ExternalEdgeFile implements AutoCloseable {
+    static final int MAGIC = 0x584D4445; // "EDMX" em little-endian.
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24; // Tamanho do cabeçalho em bytes.
+    private static final int SEGMENT_SHIFT = 30; // Segmentos de 1 GiB (múltiplo de 8: nenhum valor fica dividido).
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int numVertices; // Número de vértices no grafo.
+    private final long numEdges; // Número de arestas no grafo.
+    private final long recordsStart; // Posição do primeiro registro no arquivo.
+
+    private ExternalEdgeFile(FileChannel channel, MappedByteBuffer[] segments, int numVertices, long numEdges) {
+        this.channel = channel;
+        this.segments = segments;
+        this.numVertices = numVertices;
+        this.numEdges = numEdges;
+        this.recordsStart = HEADER_SIZE + 8L * (numVertices + 1);
+    }
+
+    static boolean isExternal(String filePath) throws IOException {
+        // Verifica o magic no início do arquivo.
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Lê até completar os 4 bytes ou chegar ao fim do arquivo.
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    static ExternalEdgeFile open(String filePath) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException(filePath + ": arquivo de arestas truncado");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(filePath + ": não é um arquivo de arestas externo");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(filePath + ": versão " + header.getInt(4) + " não suportada");
+            }
+            int numVertices = header.getInt(8);
+            long numEdges = header.getLong(16);
+            if (numVertices < 0 || numEdges < 0 || size != HEADER_SIZE + 8L * (numVertices + 1) + 8 * numEdges) {
+                throw new IOException(filePath + ": tamanho não confere com o cabeçalho");
+            }
+            ExternalEdgeFile file = new ExternalEdgeFile(channel, map(channel, FileChannel.MapMode.READ_ONLY, size),
+                    numVertices, numEdges);
+            if (file.firstOutEdge(0) != 0 || file.getLong(HEADER_SIZE + 8L * numVertices) != numEdges) {
+                throw new IOException(filePath + ": offsets inválidos");
+            }
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+        MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(mode, start, Math.min(SEGMENT_SIZE, size - start));
+            segments[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return segments;
+    }
+
+    int numVertices() {
+        return numVertices;
+    }
+
+    long numEdges() {
+        return numEdges;
+    }
+
+    long firstOutEdge(int v) {
+        return getLong(HEADER_SIZE + 8L * v);
+    }
+
+    long endOutEdge(int v) {
+        return getLong(HEADER_SIZE + 8L * (v + 1));
+    }
+
+    int target(long e) {
+        return getInt(recordsStart + 8 * e);
+    }
+
+    int cost(long e) {
+        return getInt(recordsStart + 8 * e + 4);
+    }
+
+    int source(long e) {
+        // Busca binária nos offsets; só é usada para montar a saída.
+        int lo = 0;
+        int hi = numVertices - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (firstOutEdge(mid) <= e) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private int getInt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getInt((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    private long getLong(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static void convert(String textPath, String externalPath) throws IOException {
+        // Converte o arquivo texto ("numVertices numEdges" e linhas "from to cost") em duas passadas.
+        int numVertices;
+        long numEdges;
+        long[] offsets;
+        try (IntReader in = new IntReader(Files.newInputStream(Paths.get(textPath)), textPath)) {
+            numVertices = (int) in.next(0, Integer.MAX_VALUE - 1);
+            numEdges = in.next(0, Long.MAX_VALUE / 16);
+            offsets = new long[numVertices + 1];
+            for (long e = 0; e < numEdges; e++) {
+                offsets[(int) in.next(0, numVertices - 1) + 1]++;
+                in.next(0, numVertices - 1);
+                in.next(Integer.MIN_VALUE, Integer.MAX_VALUE);
+            }
+        }
+        for (int v = 0; v < numVertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        long recordsStart = HEADER_SIZE + 8L * (numVertices + 1);
+        long size = recordsStart + 8 * numEdges;
+        try (FileChannel channel = FileChannel.open(Paths.get(externalPath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer[] segments = map(channel, FileChannel.MapMode.READ_WRITE, size);
+            ExternalEdgeFile out = new ExternalEdgeFile(channel, segments, numVertices, numEdges);
+            out.putInt(0, MAGIC);
+            out.putInt(4, VERSION);
+            out.putInt(8, numVertices);
+            out.putInt(12, 0);
+            out.putLong(16, numEdges);
+            for (int v = 0; v <= numVertices; v++) {
+                out.putLong(HEADER_SIZE + 8L * v, offsets[v]);
+            }
+            // Segunda passada: cada aresta vai para a próxima posição livre da sua origem.
+            long[] next = offsets; // Reaproveita o array: os offsets já estão no arquivo.
+            try (IntReader in = new IntReader(Files.newInputStream(Paths.get(textPath)), textPath)) {
+                in.next(0, Integer.MAX_VALUE);
+                in.next(0, Long.MAX_VALUE);
+                for (long e = 0; e < numEdges; e++) {
+                    int u = (int) in.next(0, numVertices - 1);
+                    long position = recordsStart + 8 * next[u]++;
+                    out.putInt(position, (int) in.next(0, numVertices - 1));
+                    out.putInt(position + 4, (int) in.next(Integer.MIN_VALUE, Integer.MAX_VALUE));
+                }
+            }
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+    }
+
+    private void putInt(long position, int value) {
+        segments[(int) (position >>> SEGMENT_SHIFT)].putInt((int) (position & (SEGMENT_SIZE - 1)), value);
+    }
+
+    private void putLong(long position, long value) {
+        segments[(int) (position >>> SEGMENT_SHIFT)].putLong((int) (position & (SEGMENT_SIZE - 1)), value);
+    }
+
+    static final class InEdges implements AutoCloseable {
+        // Índice reverso temporário, num arquivo mapeado que é apagado no close(): as arestas
+        // agrupadas pelo destino, cada uma com a posição no arquivo de arestas (long) e a
+        // origem (int). As posições ficam em [0, 8 * numEdges) e as origens logo depois, então
+        // nenhum valor fica dividido entre segmentos.
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer[] segments;
+        private final long numEdges; // Número de registros.
+
+        InEdges(long numEdges) throws IOException {
+            this.numEdges = numEdges;
+            this.path = Files.createTempFile("edmx-in", ".idx");
+            this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                this.segments = map(channel, FileChannel.MapMode.READ_WRITE, 12 * numEdges);
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        void put(long i, long edge, int source) {
+            long position = 8 * i;
+            segments[(int) (position >>> SEGMENT_SHIFT)].putLong((int) (position & (SEGMENT_SIZE - 1)), edge);
+            position = 8 * numEdges + 4 * i;
+            segments[(int) (position >>> SEGMENT_SHIFT)].putInt((int) (position & (SEGMENT_SIZE - 1)), source);
+        }
+
+        long edge(long i) {
+            long position = 8 * i;
+            return segments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & (SEGMENT_SIZE - 1)));
+        }
+
+        int source(long i) {
+            long position = 8 * numEdges + 4 * i;
+            return segments[(int) (position >>> SEGMENT_SHIFT)].getInt((int) (position & (SEGMENT_SIZE - 1)));
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    static final class IntReader implements AutoCloseable {
+        // Lê inteiros separados por espaços de um stream, sem montar Strings.
+        private final InputStream in;
+        private final String filePath;
+        private long line = 1; // Linha atual, para as mensagens de erro.
+        private long offset = -1; // Offset do último byte lido.
+
+        IntReader(InputStream in, String filePath) {
+            this.in = new BufferedInputStream(in, 1 << 16);
+            this.filePath = filePath;
+        }
+
+        private int read() throws IOException {
+            offset++;
+            return in.read();
+        }
+
+        long next(long min, long max) throws IOException {
+            int c = read();
+            while (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                if (c == '\n') {
+                    line++;
+                }
+                c = read();
+            }
+            if (c < 0) {
+                throw new GraphFormatException(filePath, line, offset, "fim de arquivo inesperado");
+            }
+            boolean negative = c == '-';
+            if (negative) {
+                c = read();
+            }
+            if (c < '0' || c > '9') {
+                throw new GraphFormatException(filePath, line, offset, "número esperado");
+            }
+            long value = 0;
+            while (c >= '0' && c <= '9') {
+                if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                    throw new GraphFormatException(filePath, line, offset, "número grande demais");
+                }
+                value = 10 * value + (c - '0');
+                c = read();
+            }
+            if (c == '\n') {
+                line++;
+            }
+            value = negative ? -value : value;
+            if (value < min || value > max) {
+                throw new GraphFormatException(filePath, line, offset, value + " fora do intervalo [" + min + ", " + max + "]");
+            }
+            return value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Uso: java ExternalEdgeFile edges.txt edges.edmx
+        if (args.length != 2) {
+            System.err.println("Uso: java ExternalEdgeFile <arquivo texto> <arquivo externo>");
+            System.exit(2);
+        }
+        convert(args[0], args[1]);
+        try (ExternalEdgeFile file = open(args[1])) {
+            System.out.println(file.numVertices() + " vértices e " + file.numEdges() + " arestas gravados em " + args[1]);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+import java.io.IOException;
+
+// Erro de formato no arquivo de arestas, com a linha e o offset (em bytes) do problema.
+class GraphFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final long line; // Linha do erro, a partir de 1.
+    private final long offset; // Offset do erro em bytes, a partir do início do arquivo.
+
+    GraphFormatException(String filePath, long line, long offset, String message) {
+        super(filePath + ": linha " + line + ", offset " + offset + ": " + message);
+        this.line = line;
+        this.offset = offset;
+    }
+
+    long line() {
+        return line;
+    }
+
+    long offset() {
+        return offset;
+    }
+}
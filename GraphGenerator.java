@@ -0,0 +1,323 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+// Geradores de grafos aleatórios com semente fixa, para benchmarks e testes.
+// A mesma semente sempre produz o mesmo grafo.
+//
+// Os modelos grandes (erdosRenyi, rmat e o ruído de nestedCycles) geram as
+// arestas em blocos de tamanho fixo, em paralelo; cada bloco tem o seu próprio
+// SplittableRandom, separado da semente em ordem, então o grafo não depende do
+// número de threads. main grava o grafo no formato texto lido por
+// Edmonds.readFile ou no binário de BinaryGraphFile.
+final class GraphGenerator {
+    private static final int BLOCK_SIZE = 1 << 20; // Arestas por bloco paralelo.
+
+    private GraphGenerator() {
+    }
+
+    static CsrGraph generate(String kind, int numEdges, long seed) {
+        switch (kind) {
+            case "sparse":
+                return sparse(numEdges, seed);
+            case "dense":
+                return dense(numEdges, seed);
+            case "cycles":
+                return cycleHeavy(numEdges, seed);
+            case "worst":
+                return worstCaseContraction(numEdges);
+            case "er":
+                return erdosRenyi(Math.max(2, numEdges / 8), numEdges, seed);
+            case "rmat":
+                return rmat(Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, numEdges / 16))), numEdges, seed);
+            case "nested":
+                return nestedCycles(Math.max(2, numEdges / 2), numEdges, seed);
+            default:
+                throw new IllegalArgumentException("tipo de grafo desconhecido: " + kind);
+        }
+    }
+
+    static CsrGraph sparse(int numEdges, long seed) {
+        // Grau médio 8, arestas uniformes.
+        return uniform(Math.max(2, numEdges / 8), numEdges, seed);
+    }
+
+    static CsrGraph dense(int numEdges, long seed) {
+        // Cerca de metade de todos os pares possíveis.
+        int numVertices = Math.max(2, (int) Math.sqrt(2.0 * numEdges));
+        return uniform(numVertices, numEdges, seed);
+    }
+
+    static CsrGraph uniform(int numVertices, int numEdges, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        int[] cost = new int[numEdges];
+        for (int e = 0; e < numEdges; e++) {
+            from[e] = random.nextInt(numVertices);
+            to[e] = random.nextInt(numVertices);
+            cost[e] = random.nextInt(1000);
+        }
+        return CsrGraph.fromEdges(numVertices, from, to, cost);
+    }
+
+    static CsrGraph cycleHeavy(int numEdges, long seed) {
+        // Ciclos curtos e baratos (comprimento 2 a 8) ligados por arestas aleatórias caras:
+        // quase toda aresta mínima de entrada fecha um ciclo.
+        SplittableRandom random = new SplittableRandom(seed);
+        int numVertices = Math.max(2, numEdges / 4);
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        int[] cost = new int[numEdges];
+        int e = 0;
+        int start = 0;
+        while (start < numVertices && e < numEdges) {
+            int length = Math.min(2 + random.nextInt(7), numVertices - start);
+            for (int i = 0; i < length && e < numEdges; i++) {
+                from[e] = start + i;
+                to[e] = start + (i + 1) % length;
+                cost[e] = random.nextInt(10);
+                e++;
+            }
+            start += length;
+        }
+        for (; e < numEdges; e++) {
+            from[e] = random.nextInt(numVertices);
+            to[e] = random.nextInt(numVertices);
+            cost[e] = 100 + random.nextInt(900);
+        }
+        return CsrGraph.fromEdges(numVertices, from, to, cost);
+    }
+
+    static CsrGraph worstCaseContraction(int numEdges) {
+        // Cadeia de contrações aninhadas com raiz 0: {1, 2} forma um ciclo, o super-vértice
+        // resultante forma um ciclo com 3, depois com 4, e assim por diante (profundidade V - 2).
+        int numVertices = Math.max(3, numEdges / 2 + 1);
+        int count = 2 * (numVertices - 2) + 1;
+        int[] from = new int[count];
+        int[] to = new int[count];
+        int[] cost = new int[count];
+        int e = 0;
+        from[e] = 0; // Entrada pela raiz, mais cara que todas as arestas de volta.
+        to[e] = 1;
+        cost[e] = numVertices + 1;
+        e++;
+        for (int i = 1; i < numVertices - 1; i++) {
+            from[e] = i; // Cadeia i -> i + 1, a única entrada de i + 1.
+            to[e] = i + 1;
+            cost[e] = 1;
+            e++;
+            from[e] = i + 1; // Volta i + 1 -> 1, mais cara quanto mais longe.
+            to[e] = 1;
+            cost[e] = i + 1;
+            e++;
+        }
+        return CsrGraph.fromEdges(numVertices, from, to, cost);
+    }
+
+    static CsrGraph erdosRenyi(int numVertices, int numEdges, long seed) {
+        // G(n, m): numEdges pares (origem, destino) uniformes e independentes, gerados em paralelo.
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        int[] cost = new int[numEdges];
+        forEachBlock(numEdges, seed, (random, start, end) -> {
+            for (int e = start; e < end; e++) {
+                from[e] = random.nextInt(numVertices);
+                to[e] = random.nextInt(numVertices);
+                cost[e] = random.nextInt(1000);
+            }
+        });
+        return CsrGraph.fromEdges(numVertices, from, to, cost);
+    }
+
+    static CsrGraph rmat(int scale, int numEdges, long seed) {
+        // R-MAT com os parâmetros do Graph500 (a = 0,57, b = c = 0,19): 2^scale vértices e
+        // graus em lei de potência. Cada aresta desce scale níveis da matriz de adjacência.
+        int numVertices = 1 << scale;
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        int[] cost = new int[numEdges];
+        forEachBlock(numEdges, seed, (random, start, end) -> {
+            for (int e = start; e < end; e++) {
+                int u = 0;
+                int v = 0;
+                for (int bit = scale - 1; bit >= 0; bit--) {
+                    double r = random.nextDouble();
+                    if (r >= 0.57 && r < 0.76) {
+                        v |= 1 << bit; // Quadrante b.
+                    } else if (r >= 0.76 && r < 0.95) {
+                        u |= 1 << bit; // Quadrante c.
+                    } else if (r >= 0.95) {
+                        u |= 1 << bit; // Quadrante d.
+                        v |= 1 << bit;
+                    }
+                }
+                from[e] = u;
+                to[e] = v;
+                cost[e] = random.nextInt(1000);
+            }
+        });
+        return CsrGraph.fromEdges(numVertices, from, to, cost);
+    }
+
+    static CsrGraph nestedCycles(int numVertices, int numEdges, long seed) {
+        // Ciclos dentro de ciclos, com raiz 0: os vértices 1 .. V - 1 formam grupos contíguos;
+        // em cada nível, 2 a 4 grupos vizinhos viram um ciclo (de um vértice qualquer de um
+        // grupo para o primeiro vértice do próximo) e o ciclo é o grupo do nível seguinte.
+        // As arestas do nível L custam 10L a 10L + 9 e toda aresta que entra em um grupo
+        // chega no seu primeiro vértice, então o motor contrai exatamente essa hierarquia
+        // (cerca de log V níveis). O resto das arestas é ruído caro demais para mudar isso.
+        SplittableRandom random = new SplittableRandom(seed);
+        numVertices = Math.max(2, numVertices);
+        int[] groupStart = new int[numVertices]; // Grupos do nível atual: [groupStart[i], groupStart[i + 1]).
+        int numGroups = numVertices - 1;
+        for (int i = 0; i <= numGroups; i++) {
+            groupStart[i] = i + 1;
+        }
+        int structural = 0; // Arestas da hierarquia: menos de uma por grupo em cada nível.
+        int[] from = new int[Math.max(numEdges, 2 * numVertices)];
+        int[] to = new int[from.length];
+        int[] cost = new int[from.length];
+        int level = 1;
+        while (numGroups > 1) {
+            int next = 0;
+            for (int i = 0; i < numGroups; ) {
+                int size = Math.min(2 + random.nextInt(3), numGroups - i);
+                if (size == 1) {
+                    groupStart[next++] = groupStart[i++]; // Sobrou um grupo: sobe sozinho.
+                    continue;
+                }
+                for (int k = 0; k < size; k++) {
+                    int a = i + k;
+                    int b = i + (k + 1) % size;
+                    from[structural] = groupStart[a] + random.nextInt(groupStart[a + 1] - groupStart[a]);
+                    to[structural] = groupStart[b];
+                    cost[structural++] = 10 * level + random.nextInt(10);
+                }
+                groupStart[next++] = groupStart[i];
+                i += size;
+            }
+            groupStart[next] = numVertices;
+            numGroups = next;
+            level++;
+        }
+        from[structural] = 0; // A raiz entra no topo da hierarquia.
+        to[structural] = 1;
+        cost[structural++] = 10 * level;
+        int total = Math.max(numEdges, structural);
+        int noiseCost = 10 * (level + 2) * (level + 2); // Mais que qualquer soma de duais dos grupos.
+        int numNoise = total - structural;
+        int base = structural;
+        int n = numVertices;
+        forEachBlock(numNoise, random.nextLong(), (r, start, end) -> {
+            for (int e = base + start; e < base + end; e++) {
+                from[e] = r.nextInt(n);
+                to[e] = 1 + r.nextInt(n - 1);
+                cost[e] = noiseCost + r.nextInt(1000);
+            }
+        });
+        return CsrGraph.fromEdges(numVertices, trim(from, total), trim(to, total), trim(cost, total));
+    }
+
+    private static int[] trim(int[] array, int length) {
+        return array.length == length ? array : Arrays.copyOf(array, length);
+    }
+
+    private interface Block {
+        void fill(SplittableRandom random, int start, int end);
+    }
+
+    private static void forEachBlock(int count, long seed, Block block) {
+        // Divide [0, count) em blocos de BLOCK_SIZE; o gerador de cada bloco é separado da semente
+        // em ordem antes de qualquer thread começar.
+        int numBlocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[numBlocks];
+        for (int b = 0; b < numBlocks; b++) {
+            randoms[b] = root.split();
+        }
+        OptimumBranching.parallelFor(ForkJoinPool.commonPool(), numBlocks,
+                b -> block.fill(randoms[b], b * BLOCK_SIZE, (int) Math.min(count, (long) (b + 1) * BLOCK_SIZE)));
+    }
+
+    static void writeText(CsrGraph graph, String filePath) throws IOException {
+        // Formato de Edmonds.readFile: "numVertices numEdges" e uma linha "from to cost" por aresta.
+        // Os blocos são formatados em paralelo e gravados em ordem.
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(channel, ByteBuffer.wrap((graph.numVertices() + " " + graph.numEdges() + "\n").getBytes()));
+            int numEdges = graph.numEdges();
+            int numBlocks = (numEdges + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int wave = Math.max(1, ForkJoinPool.commonPool().getParallelism()); // Blocos em memória por vez.
+            for (int first = 0; first < numBlocks; first += wave) {
+                int start = first;
+                ByteBuffer[] texts = new ByteBuffer[Math.min(wave, numBlocks - first)];
+                OptimumBranching.parallelFor(ForkJoinPool.commonPool(), texts.length, i -> {
+                    int b = start + i;
+                    int end = (int) Math.min(numEdges, (long) (b + 1) * BLOCK_SIZE);
+                    byte[] text = new byte[34 * (end - b * BLOCK_SIZE)]; // Até 11 + 11 + 11 bytes e '\n' por linha.
+                    int pos = 0;
+                    for (int e = b * BLOCK_SIZE; e < end; e++) {
+                        pos = appendInt(text, pos, graph.source(e));
+                        text[pos++] = ' ';
+                        pos = appendInt(text, pos, graph.target(e));
+                        text[pos++] = ' ';
+                        pos = appendInt(text, pos, graph.cost(e));
+                        text[pos++] = '\n';
+                    }
+                    texts[i] = ByteBuffer.wrap(text, 0, pos);
+                });
+                for (ByteBuffer text : texts) {
+                    write(channel, text);
+                }
+            }
+        }
+    }
+
+    private static int appendInt(byte[] text, int pos, int value) {
+        // Escreve value em decimal a partir de pos e devolve a posição seguinte.
+        long v = value;
+        if (v < 0) {
+            text[pos++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (long p = 10; p <= v; p *= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            text[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        return pos + digits;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Uso: java GraphGenerator <er|rmat|nested|sparse|dense|cycles|worst> <arestas> <semente> <saída> [texto|binario]
+        if (args.length < 4) {
+            System.err.println("Uso: java GraphGenerator <modelo> <arestas> <semente> <saída> [texto|binario]");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        CsrGraph graph = generate(args[0], Integer.parseInt(args[1]), Long.parseLong(args[2]));
+        long generated = System.nanoTime();
+        if (args.length > 4 && args[4].equals("binario")) {
+            BinaryGraphFile.write(graph, args[3]);
+        } else {
+            writeText(graph, args[3]);
+        }
+        System.out.printf("%d vértices e %d arestas: gerado em %.2f s, gravado em %.2f s%n", graph.numVertices(),
+                graph.numEdges(), (generated - start) / 1e9, (System.nanoTime() - generated) / 1e9);
+    }
+}
@@ -0,0 +1,83 @@
+// Compacta identificadores externos esparsos (ex.: hashes de 64 bits) em índices
+// densos 0, 1, 2... na ordem em que aparecem. A tabela (endereçamento aberto com
+// sondagem linear) e o mapa reverso ficam fora do heap, em OffHeapLongArray.
+final class IdRemapper {
+    private OffHeapLongArray keys = new OffHeapLongArray(); // Identificador externo de cada posição.
+    private OffHeapLongArray values = new OffHeapLongArray(); // Índice denso + 1 (0 = posição livre).
+    private final OffHeapLongArray externalIds = new OffHeapLongArray(); // Identificador externo de cada índice.
+    private long capacity; // Número de posições da tabela (potência de 2).
+    private long size; // Identificadores já vistos.
+
+    IdRemapper(long expected) {
+        this.capacity = Long.highestOneBit(Math.max(16, 2 * expected - 1) << 1);
+    }
+
+    long size() {
+        return size;
+    }
+
+    long denseId(long externalId) {
+        // Devolve o índice denso do identificador, criando um novo se for a primeira vez.
+        long slot = find(externalId);
+        long value = values.get(slot);
+        if (value != 0) {
+            return value - 1;
+        }
+        long dense = size++;
+        keys.set(slot, externalId);
+        values.set(slot, dense + 1);
+        externalIds.set(dense, externalId);
+        if (2 * size > capacity) {
+            grow();
+        }
+        return dense;
+    }
+
+    long lookup(long externalId) {
+        // Índice denso do identificador, ou -1 se ele nunca apareceu.
+        return values.get(find(externalId)) - 1;
+    }
+
+    long externalId(long denseId) {
+        return externalIds.get(denseId);
+    }
+
+    private long find(long externalId) {
+        long mask = capacity - 1;
+        long slot = mix(externalId) & mask;
+        while (values.get(slot) != 0 && keys.get(slot) != externalId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        OffHeapLongArray oldKeys = keys;
+        OffHeapLongArray oldValues = values;
+        long oldCapacity = capacity;
+        keys = new OffHeapLongArray();
+        values = new OffHeapLongArray();
+        capacity *= 2;
+        for (long slot = 0; slot < oldCapacity; slot++) {
+            long value = oldValues.get(slot);
+            if (value != 0) {
+                long key = oldKeys.get(slot);
+                long target = find(key);
+                keys.set(target, key);
+                values.set(target, value);
+            }
+        }
+        oldKeys.free(); // A tabela antiga não espera o GC.
+        oldValues.free();
+    }
+
+    private static long mix(long x) {
+        // Finalizador do MurmurHash3: espalha ids sequenciais ou com bits baixos repetidos.
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb93fe53b7b63L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
@@ -0,0 +1,209 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+// Enumeração dos k branchings de menor custo com raiz fixa, em ordem crescente
+// de custo (partição de Lawler/Murty, como em Camerini-Fratta-Maffioli).
+//
+// Cada subproblema é o grafo com algumas arestas obrigatórias e outras
+// proibidas. Depois de emitir a solução T de um subproblema, as arestas livres
+// de T (e1, e2, ...) o dividem em filhos disjuntos: o filho i obriga e1 .. e(i-1)
+// e proíbe ei, então toda arborescência aparece uma única vez. As restrições
+// são listas encadeadas que compartilham o prefixo com o pai (O(1) por filho).
+//
+// A fila de prioridade é preguiçosa: um filho entra com um limite inferior e só
+// é resolvido quando chega ao topo, então o primeiro resultado custa uma
+// execução do motor e cada resultado seguinte custa as execuções dos filhos que
+// chegam ao topo antes dele. O limite vem da estrutura de contração do pai,
+// como em CFM: os duais do pai (BranchingCertificate) continuam viáveis no
+// filho, então o filho que proíbe a aresta ei que entra em v custa pelo menos
+// o custo do pai mais o menor custo reduzido de outra aresta que entra em v; se
+// não há outra aresta, o filho nem entra na fila. Todas as execuções usam o
+// mesmo OptimumBranching (a área de trabalho é reaproveitada) e um único array
+// de arestas proibidas, marcado e desmarcado a cada subproblema; a contração
+// em si é refeita por execução.
+final class KBestBranchings implements Iterator<KBestBranchings.Solution> {
+    private final CsrGraph graph; // Grafo de entrada.
+    private final int root; // Raiz de todos os branchings.
+    private final OptimumBranching engine;
+    private final boolean[] excluded; // Arestas proibidas no subproblema em resolução.
+    private final boolean[] included; // Arestas obrigatórias da solução sendo partida.
+    private int expected = -1; // Arestas de uma arborescência completa (alcançáveis - 1); -1 antes da primeira.
+    private final BranchingCertificate certificate = new BranchingCertificate(); // Duais da última execução.
+    private final PriorityQueue<Candidate> queue = new PriorityQueue<>();
+    private long sequence; // Desempate estável na fila.
+
+    KBestBranchings(CsrGraph graph, int root) {
+        this.graph = graph;
+        this.root = root;
+        this.engine = new OptimumBranching(graph);
+        this.excluded = new boolean[graph.numEdges()];
+        this.included = new boolean[graph.numEdges()];
+        Candidate first = solve(null);
+        expected = count(first.parentEdge);
+        queue.add(first);
+    }
+
+    static final class Solution {
+        final int[] parentEdge; // Aresta de entrada de cada vértice (-1 na raiz e nos inalcançáveis).
+        final long cost; // Custo total.
+
+        Solution(int[] parentEdge, long cost) {
+            this.parentEdge = parentEdge;
+            this.cost = cost;
+        }
+    }
+
+    private static final class Constraint {
+        final int edge;
+        final boolean include; // true = obrigatória, false = proibida.
+        final Constraint next; // Restrições herdadas.
+
+        Constraint(int edge, boolean include, Constraint next) {
+            this.edge = edge;
+            this.include = include;
+            this.next = next;
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        final long key; // Custo exato se resolvido; senão, o custo do pai (limite inferior).
+        final int[] parentEdge; // null enquanto não foi resolvido.
+        final long[] delta; // Aumento mínimo do custo ao proibir a aresta de cada vértice (MAX_VALUE = impossível).
+        final Constraint constraints;
+        final long sequence;
+
+        Candidate(long key, int[] parentEdge, long[] delta, Constraint constraints, long sequence) {
+            this.key = key;
+            this.parentEdge = parentEdge;
+            this.delta = delta;
+            this.constraints = constraints;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Candidate o) {
+            // Com o mesmo custo, um candidato resolvido sai antes (o limite do outro não fica menor).
+            if (key != o.key) {
+                return Long.compare(key, o.key);
+            }
+            if ((parentEdge == null) != (o.parentEdge == null)) {
+                return parentEdge != null ? -1 : 1;
+            }
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        // Resolve os candidatos do topo até o topo ser uma solução (ou a fila acabar).
+        while (!queue.isEmpty() && queue.peek().parentEdge == null) {
+            Candidate c = queue.poll();
+            Candidate solved = solve(c.constraints);
+            if (solved != null) {
+                queue.add(solved);
+            }
+        }
+        return !queue.isEmpty();
+    }
+
+    @Override
+    public Solution next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Candidate c = queue.poll();
+        // Partição: as arestas livres da solução geram os filhos, com os limites calculados na resolução.
+        for (Constraint k = c.constraints; k != null; k = k.next) {
+            if (k.include) {
+                included[k.edge] = true;
+            }
+        }
+        Constraint prefix = c.constraints;
+        for (int v = 0; v < c.parentEdge.length; v++) {
+            int e = c.parentEdge[v];
+            if (e >= 0 && !included[e]) {
+                if (c.delta[v] != Long.MAX_VALUE) {
+                    queue.add(new Candidate(c.key + c.delta[v], null, null, new Constraint(e, false, prefix), sequence++));
+                }
+                prefix = new Constraint(e, true, prefix);
+            }
+        }
+        for (Constraint k = c.constraints; k != null; k = k.next) {
+            included[k.edge] = false;
+        }
+        return new Solution(c.parentEdge, c.key);
+    }
+
+    private Candidate solve(Constraint constraints) {
+        // Resolve o subproblema e calcula os limites dos filhos; null se as restrições não
+        // deixam uma arborescência completa.
+        exclude(constraints, true);
+        int[] parentEdge = engine.solve(root, certificate, excluded);
+        Candidate result = null;
+        if (expected < 0 || count(parentEdge) == expected) {
+            // Limite de cada filho: o menor custo reduzido de outra aresta permitida que entra em v,
+            // vinda de um vértice da solução (os duais só valem entre eles).
+            boolean[] reachable = new boolean[parentEdge.length];
+            for (int v = 0; v < parentEdge.length; v++) {
+                reachable[v] = v == root || parentEdge[v] >= 0;
+            }
+            long[] reduced = certificate.reducedCosts(graph, root, reachable);
+            long[] delta = new long[parentEdge.length];
+            Arrays.fill(delta, Long.MAX_VALUE);
+            for (int f = 0; f < reduced.length; f++) {
+                int v = graph.target(f);
+                if (reduced[f] != Long.MAX_VALUE && !excluded[f] && f != parentEdge[v]) {
+                    delta[v] = Math.min(delta[v], reduced[f]);
+                }
+            }
+            result = new Candidate(cost(parentEdge), parentEdge, delta, constraints, sequence++);
+        }
+        exclude(constraints, false);
+        return result;
+    }
+
+    private void exclude(Constraint constraints, boolean value) {
+        // Marca (ou desmarca) as arestas proibidas pelas restrições. Obrigar e é proibir as
+        // outras arestas que entram no destino de e.
+        for (Constraint k = constraints; k != null; k = k.next) {
+            if (!k.include) {
+                excluded[k.edge] = value;
+                continue;
+            }
+            int v = graph.target(k.edge);
+            for (int i = graph.firstInIndex(v); i < graph.endInIndex(v); i++) {
+                int e = graph.inEdge(i);
+                excluded[e] = value && e != k.edge;
+            }
+        }
+    }
+
+    private static int count(int[] parentEdge) {
+        int count = 0;
+        for (int e : parentEdge) {
+            count += e >= 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    private long cost(int[] parentEdge) {
+        long sum = 0;
+        for (int e : parentEdge) {
+            sum += e < 0 ? 0 : graph.longCost(e);
+        }
+        return sum;
+    }
+
+    static Solution[] best(CsrGraph graph, int root, int k) {
+        // Os k melhores (ou todos, se houver menos de k).
+        KBestBranchings it = new KBestBranchings(graph, root);
+        Solution[] result = new Solution[k];
+        int count = 0;
+        while (count < k && it.hasNext()) {
+            result[count++] = it.next();
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,41 @@
+import java.util.Arrays;
+
+// Ouvinte de métricas em uso no processo; NONE (desligado) por padrão.
+final class Metrics {
+    private static volatile BranchingMetrics listener = BranchingMetrics.NONE;
+
+    private Metrics() {
+    }
+
+    static BranchingMetrics get() {
+        return listener;
+    }
+
+    static void install(BranchingMetrics metrics) {
+        listener = metrics == null ? BranchingMetrics.NONE : metrics;
+    }
+
+    static long start(BranchingMetrics metrics) {
+        // Instante inicial de uma fase, ou 0 se as métricas estão desligadas.
+        return metrics == BranchingMetrics.NONE ? 0 : System.nanoTime();
+    }
+
+    static long lap(BranchingMetrics metrics, String algorithm, String phase, long start) {
+        // Registra a fase iniciada em start e devolve o início da próxima.
+        if (metrics == BranchingMetrics.NONE) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        metrics.phase(algorithm, phase, now - start);
+        return now;
+    }
+
+    static long[] countCycle(long[] cycleLengths, int length) {
+        // Conta um ciclo de length vértices no histograma local; devolve o array (que cresce se preciso).
+        if (length >= cycleLengths.length) {
+            cycleLengths = Arrays.copyOf(cycleLengths, Math.max(length + 1, 2 * cycleLengths.length));
+        }
+        cycleLengths[length]++;
+        return cycleLengths;
+    }
+}
@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Acumula as métricas recebidas e as exporta em JSON, para painéis e para
+// comparar execuções. O pico de memória é o maior uso dos pools de heap desde
+// a criação do gravador (ou desde reset()).
+final class MetricsRecorder implements BranchingMetrics {
+    private final Map<String, long[]> phases = new LinkedHashMap<>(); // "algoritmo.fase" -> {execuções, nanossegundos}.
+    private final Map<String, long[]> counters = new LinkedHashMap<>(); // Algoritmo -> {contrações, soma e máximo dos ciclos, operações de heap, arestas examinadas}.
+    private long[] cycleLengths = new long[0]; // Histograma dos comprimentos de ciclo.
+
+    MetricsRecorder() {
+        reset();
+    }
+
+    synchronized void reset() {
+        phases.clear();
+        counters.clear();
+        cycleLengths = new long[0];
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void phase(String algorithm, String phase, long nanos) {
+        long[] p = phases.computeIfAbsent(algorithm + "." + phase, k -> new long[2]);
+        p[0]++;
+        p[1] += nanos;
+    }
+
+    @Override
+    public synchronized void contractions(String algorithm, long[] counts) {
+        long[] c = counters(algorithm);
+        for (int length = 0; length < counts.length; length++) {
+            if (counts[length] == 0) {
+                continue;
+            }
+            c[0] += counts[length];
+            c[1] += length * counts[length];
+            c[2] = Math.max(c[2], length);
+            if (length >= cycleLengths.length) {
+                cycleLengths = Arrays.copyOf(cycleLengths, length + 1);
+            }
+            cycleLengths[length] += counts[length];
+        }
+    }
+
+    @Override
+    public synchronized void heapOperations(String algorithm, long count) {
+        counters(algorithm)[3] += count;
+    }
+
+    @Override
+    public synchronized void edgesScanned(String algorithm, long count) {
+        counters(algorithm)[4] += count;
+    }
+
+    private long[] counters(String algorithm) {
+        return counters.computeIfAbsent(algorithm, k -> new long[5]);
+    }
+
+    static long peakHeapBytes() {
+        // Soma dos picos de cada pool de heap (limite superior do pico real).
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    synchronized String toJson() {
+        StringBuilder json = new StringBuilder("{\"phases\":{");
+        String separator = "";
+        for (Map.Entry<String, long[]> entry : phases.entrySet()) {
+            long[] p = entry.getValue();
+            json.append(separator).append(String.format(Locale.ROOT, "\"%s\":{\"count\":%d,\"totalMs\":%.3f}",
+                    entry.getKey(), p[0], p[1] / 1e6));
+            separator = ",";
+        }
+        json.append("},\"algorithms\":{");
+        separator = "";
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            long[] c = entry.getValue();
+            json.append(separator).append(String.format(Locale.ROOT,
+                    "\"%s\":{\"contractions\":%d,\"meanCycleLength\":%.3f,\"maxCycleLength\":%d,\"heapOperations\":%d,"
+                            + "\"edgesScanned\":%d}",
+                    entry.getKey(), c[0], c[0] == 0 ? 0.0 : (double) c[1] / c[0], c[2], c[3], c[4]));
+            separator = ",";
+        }
+        json.append("},\"cycleLengths\":{");
+        separator = "";
+        for (int length = 0; length < cycleLengths.length; length++) {
+            if (cycleLengths[length] > 0) {
+                json.append(separator).append('"').append(length).append("\":").append(cycleLengths[length]);
+                separator = ",";
+            }
+        }
+        json.append("},\"peakHeapBytes\":").append(peakHeapBytes()).append('}');
+        return json.toString();
+    }
+
+    void writeJson(String filePath) throws IOException {
+        try (PrintWriter writer = new PrintWriter(filePath, StandardCharsets.UTF_8)) {
+            writer.println(toJson());
+        }
+    }
+}
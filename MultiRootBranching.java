@@ -0,0 +1,215 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+// Branchings ótimos para várias raízes sobre o mesmo grafo.
+//
+// A fase de contração (escolha das arestas mínimas de entrada e contração dos
+// ciclos) não depende da raiz: ela é feita uma única vez e registrada em uma
+// árvore de contração (Camerini/Fratta/Maffioli, Gabow). Para cada raiz resta
+// só a fase de expansão, O(V), que roda em paralelo.
+//
+// Para que a contração cubra o grafo inteiro, ele é fechado com um anel de
+// arestas virtuais i -> i + 1 de custo maior que qualquer branching real.
+// Se a expansão de uma raiz usa uma aresta virtual, a raiz não alcança todos
+// os vértices e o branching dela é calculado pelo OptimumBranching comum.
+final class MultiRootBranching {
+    private final CsrGraph graph; // Grafo de entrada.
+    private final int numVertices; // Número de vértices no grafo.
+    private final int numEdges; // Arestas reais; as virtuais vêm depois delas.
+    private final int numNodes; // Folhas (vértices) mais nós de ciclos contraídos.
+    private final int[] inEdge; // Aresta de entrada escolhida para cada nó (-1 no topo).
+    private final int[] treeParent; // Pai de cada nó na árvore de contração (-1 no topo).
+    private final int[] childOffsets; // Filhos de x ficam em children[childOffsets[x] .. childOffsets[x + 1]).
+    private final int[] children;
+    private final ConcurrentLinkedQueue<Workspace> workspaces = new ConcurrentLinkedQueue<>(); // Áreas livres; somem com a instância.
+    private final ForkJoinPool pool; // Pool da seleção das arestas mínimas e dos fallbacks (null = sequencial).
+
+    MultiRootBranching(CsrGraph graph) {
+        this(graph, null);
+    }
+
+    MultiRootBranching(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        this.numVertices = graph.numVertices();
+        this.numEdges = graph.numEdges();
+        int maxNodes = Math.max(1, 2 * numVertices - 1);
+        this.inEdge = new int[maxNodes];
+        this.treeParent = new int[maxNodes];
+        Arrays.fill(inEdge, -1);
+        Arrays.fill(treeParent, -1);
+        this.numNodes = contract();
+        this.childOffsets = new int[numNodes + 1];
+        this.children = new int[Math.max(0, numNodes - 1)];
+        for (int x = 0; x < numNodes; x++) {
+            if (treeParent[x] >= 0) {
+                childOffsets[treeParent[x] + 1]++;
+            }
+        }
+        for (int x = 0; x < numNodes; x++) {
+            childOffsets[x + 1] += childOffsets[x];
+        }
+        int[] next = Arrays.copyOf(childOffsets, numNodes);
+        for (int x = 0; x < numNodes; x++) {
+            if (treeParent[x] >= 0) {
+                children[next[treeParent[x]]++] = x;
+            }
+        }
+    }
+
+    private int contract() {
+        // Monta a árvore de contração e devolve o número de nós.
+        if (numVertices <= 1) {
+            return numVertices;
+        }
+        long totalCost = 0;
+        for (int e = 0; e < numEdges; e++) {
+            totalCost = Math.addExact(totalCost, Math.abs(graph.longCost(e)));
+        }
+        long virtualCost = Math.addExact(Math.multiplyExact(2, totalCost), 1);
+
+        int maxNodes = 2 * numVertices - 1;
+        EdgeHeap heaps = new EdgeHeap(numEdges + numVertices);
+        int[] heap = new int[maxNodes];
+        Arrays.fill(heap, -1);
+        OptimumBranching.parallelFor(pool, numVertices, v -> {
+            int h = -1;
+            for (int i = graph.firstInIndex(v); i < graph.endInIndex(v); i++) {
+                int e = graph.inEdge(i);
+                if (graph.source(e) != v) {
+                    h = heaps.merge(h, heaps.make(e, graph.longCost(e)));
+                }
+            }
+            heap[v] = heaps.merge(h, heaps.make(numEdges + v, virtualCost)); // Aresta virtual v - 1 -> v.
+        });
+
+        int[] uf = new int[maxNodes]; // Union-find com compressão de caminho; o representante é o nó mais recente.
+        for (int x = 0; x < maxNodes; x++) {
+            uf[x] = x;
+        }
+        int next = numVertices;
+        int a = 0;
+        while (heap[a] >= 0) {
+            int e = heap[a];
+            long key = heaps.key(e);
+            heap[a] = heaps.pop(e);
+            int b = find(uf, source(e));
+            if (b == a) {
+                continue; // Aresta interna a um ciclo já contraído.
+            }
+            heaps.add(heap[a], -key);
+            inEdge[a] = e;
+            if (inEdge[b] < 0) {
+                a = b; // b ainda não foi visitado: estende o caminho.
+                continue;
+            }
+            // b está no caminho atual: contrai o ciclo b -> ... -> a -> b em um novo nó.
+            int c = next++;
+            int x = b;
+            while (x != c) {
+                int previous = find(uf, source(inEdge[x])); // Vira c depois que b é ligado a c.
+                treeParent[x] = c;
+                uf[x] = c;
+                heap[c] = heaps.merge(heap[c], heap[x]);
+                x = previous;
+            }
+            a = c;
+        }
+        return next;
+    }
+
+    int[] solve(int root) {
+        // Devolve a aresta de entrada de cada vértice no branching ótimo com a raiz dada.
+        // A área de trabalho é emprestada da instância e devolvida no fim, então nenhuma thread
+        // do pool fica presa a ela depois do lote.
+        Workspace ws = workspaces.poll();
+        if (ws == null) {
+            ws = new Workspace(numNodes);
+        }
+        try {
+            int[] parentEdge = expand(root, ws);
+            if (parentEdge == null) {
+                if (ws.fallback == null) {
+                    ws.fallback = new OptimumBranching(graph, pool);
+                }
+                return ws.fallback.solve(root);
+            }
+            return parentEdge;
+        } finally {
+            workspaces.offer(ws);
+        }
+    }
+
+    int[][] solveAll(int[] roots) {
+        // Expande as raízes em paralelo; a árvore de contração é compartilhada.
+        int[][] result = new int[roots.length][];
+        OptimumBranching.parallelFor(pool, roots.length, i -> result[i] = solve(roots[i]));
+        return result;
+    }
+
+    private int[] expand(int root, Workspace ws) {
+        // Fase de expansão: desmonta a árvore a partir da folha da raiz. Devolve null
+        // se alguma aresta virtual for usada (a raiz não alcança todos os vértices).
+        int[] parentEdge = new int[numVertices];
+        Arrays.fill(parentEdge, -1);
+        int stamp = ++ws.stamp;
+        int top = dismantle(root, ws, stamp, 0);
+        while (top > 0) {
+            int c = ws.stack[--top];
+            int e = inEdge[c];
+            if (e >= numEdges) {
+                return null;
+            }
+            int v = graph.target(e);
+            parentEdge[v] = e;
+            top = dismantle(v, ws, stamp, top);
+        }
+        return parentEdge;
+    }
+
+    private int dismantle(int leaf, Workspace ws, int stamp, int top) {
+        // Remove a folha e seus ancestrais ainda presentes; os outros filhos viram raízes.
+        int y = leaf;
+        while (y >= 0 && ws.removed[y] != stamp) {
+            ws.removed[y] = stamp;
+            for (int i = childOffsets[y]; i < childOffsets[y + 1]; i++) {
+                int child = children[i];
+                if (ws.removed[child] != stamp) {
+                    ws.stack[top++] = child;
+                }
+            }
+            y = treeParent[y];
+        }
+        return top;
+    }
+
+    private int source(int e) {
+        return e < numEdges ? graph.source(e) : (e - numEdges + numVertices - 1) % numVertices;
+    }
+
+    private static int find(int[] uf, int x) {
+        int r = x;
+        while (uf[r] != r) {
+            r = uf[r];
+        }
+        while (uf[x] != r) {
+            int next = uf[x];
+            uf[x] = r;
+            x = next;
+        }
+        return r;
+    }
+
+    private static final class Workspace {
+        final int[] removed; // Carimbo da raiz que removeu cada nó.
+        final int[] stack; // Nós que viraram raízes e ainda não foram expandidos.
+        int stamp;
+        OptimumBranching fallback; // Motor comum desta área, criado no primeiro fallback.
+
+        Workspace(int numNodes) {
+            this.removed = new int[numNodes];
+            this.stack = new int[numNodes];
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+// Arestas fora do heap, com identificadores externos de 64 bits e custos de 64 bits.
+//
+// Os identificadores (por exemplo, hashes) são compactados em índices densos pelo
+// IdRemapper durante a carga; as arestas ficam em OffHeapLongArray, com a origem,
+// o destino (densos) e o custo em um long cada, então os índices densos podem
+// passar de 2^31. toCsrGraph() monta o CSR em buffers diretos, com custos longos,
+// para os algoritmos usuais; só ele exige que tudo caiba em int, e como cada
+// array do CSR é um buffer só (no máximo 2^31 - 1 bytes), os custos limitam as
+// arestas a 2^28 - 1.
+final class OffHeapEdgeStore {
+    private final IdRemapper ids; // Identificador externo <-> índice denso.
+    private final OffHeapLongArray sources = new OffHeapLongArray(); // Origem de cada aresta, em índice denso.
+    private final OffHeapLongArray targets = new OffHeapLongArray(); // Destino de cada aresta, em índice denso.
+    private final OffHeapLongArray costs = new OffHeapLongArray(); // Custo de cada aresta.
+    private long numEdges; // Número de arestas no grafo.
+
+    OffHeapEdgeStore(long expectedVertices) {
+        this.ids = new IdRemapper(expectedVertices);
+    }
+
+    long addEdge(long fromId, long toId, long cost) {
+        // Acrescenta a aresta fromId -> toId (identificadores externos) e devolve o seu número.
+        long u = ids.denseId(fromId);
+        long v = ids.denseId(toId);
+        long e = numEdges++;
+        sources.set(e, u);
+        targets.set(e, v);
+        costs.set(e, cost);
+        return e;
+    }
+
+    long numVertices() {
+        return ids.size();
+    }
+
+    long numEdges() {
+        return numEdges;
+    }
+
+    long source(long e) {
+        return sources.get(e);
+    }
+
+    long target(long e) {
+        return targets.get(e);
+    }
+
+    long cost(long e) {
+        return costs.get(e);
+    }
+
+    IdRemapper ids() {
+        return ids;
+    }
+
+    CsrGraph toCsrGraph() {
+        // CSR em buffers diretos. Cada array é um buffer só, então precisa caber em 2^31 - 1
+        // bytes: os custos (8 bytes por aresta) limitam as arestas, os offsets (4 bytes por
+        // vértice) limitam os vértices.
+        if (4 * (numVertices() + 1) > Integer.MAX_VALUE || 8 * numEdges > Integer.MAX_VALUE) {
+            throw new IllegalStateException("grafo grande demais para o CSR: " + numVertices() + " vértices, "
+                    + numEdges + " arestas (máximo " + (Integer.MAX_VALUE / 4 - 1) + " e " + Integer.MAX_VALUE / 8 + ")");
+        }
+        int n = (int) numVertices();
+        int m = (int) numEdges;
+        IntBuffer offsets = directInts(n + 1);
+        IntBuffer inOffsets = directInts(n + 1);
+        for (int e = 0; e < m; e++) {
+            int u = (int) source(e); // Os índices densos são menores que n, que cabe em int.
+            int v = (int) target(e);
+            offsets.put(u + 1, offsets.get(u + 1) + 1);
+            inOffsets.put(v + 1, inOffsets.get(v + 1) + 1);
+        }
+        for (int v = 0; v < n; v++) {
+            offsets.put(v + 1, offsets.get(v + 1) + offsets.get(v));
+            inOffsets.put(v + 1, inOffsets.get(v + 1) + inOffsets.get(v));
+        }
+        IntBuffer csrSources = directInts(m);
+        IntBuffer csrTargets = directInts(m);
+        LongBuffer longCosts = ByteBuffer.allocateDirect(Math.toIntExact(8L * m)).order(ByteOrder.nativeOrder()).asLongBuffer();
+        IntBuffer next = directInts(n);
+        for (int v = 0; v < n; v++) {
+            next.put(v, offsets.get(v));
+        }
+        for (int e = 0; e < m; e++) {
+            int u = (int) source(e);
+            int i = next.get(u);
+            next.put(u, i + 1);
+            csrSources.put(i, u);
+            csrTargets.put(i, (int) target(e));
+            longCosts.put(i, cost(e));
+        }
+        IntBuffer inEdges = directInts(m);
+        for (int v = 0; v < n; v++) {
+            next.put(v, inOffsets.get(v));
+        }
+        for (int i = 0; i < m; i++) {
+            int v = csrTargets.get(i);
+            int j = next.get(v);
+            next.put(v, j + 1);
+            inEdges.put(j, i);
+        }
+        return new CsrGraph(n, m, offsets, csrSources, csrTargets, longCosts, inOffsets, inEdges);
+    }
+
+    private static IntBuffer directInts(int count) {
+        return ByteBuffer.allocateDirect(Math.toIntExact(4L * count)).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    static OffHeapEdgeStore load(String filePath) throws IOException {
+        // Mesmo formato texto do edges.txt, mas com identificadores e custos de 64 bits;
+        // o número de vértices do cabeçalho só dimensiona a tabela de identificadores.
+        try (ExternalEdgeFile.IntReader in = new ExternalEdgeFile.IntReader(Files.newInputStream(Paths.get(filePath)), filePath)) {
+            long expectedVertices = in.next(0, Integer.MAX_VALUE);
+            long numEdges = in.next(0, Long.MAX_VALUE);
+            OffHeapEdgeStore store = new OffHeapEdgeStore(expectedVertices);
+            for (long e = 0; e < numEdges; e++) {
+                long from = in.next(Long.MIN_VALUE, Long.MAX_VALUE);
+                long to = in.next(Long.MIN_VALUE, Long.MAX_VALUE);
+                store.addEdge(from, to, in.next(Long.MIN_VALUE, Long.MAX_VALUE));
+            }
+            return store;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Uso: java OffHeapEdgeStore arquivo raiz (identificador externo da raiz)
+        if (args.length != 2) {
+            System.err.println("Uso: java OffHeapEdgeStore <arquivo> <raiz>");
+            System.exit(2);
+        }
+        OffHeapEdgeStore store = load(args[0]);
+        long root = store.ids().lookup(Long.parseLong(args[1]));
+        if (root < 0) {
+            System.err.println("Raiz " + args[1] + " não aparece no grafo.");
+            System.exit(1);
+        }
+        CsrGraph graph = store.toCsrGraph();
+        int[] parentEdge = new OptimumBranching(graph).solve((int) root);
+        System.out.println("Optimum Branching:");
+        for (int v = 0; v < parentEdge.length; v++) {
+            int e = parentEdge[v];
+            if (e >= 0) {
+                System.out.println(store.ids().externalId(graph.source(e)) + " -> " + store.ids().externalId(v)
+                        + " - Cost: " + graph.longCost(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+// Array de longs fora do heap, em segmentos diretos alocados sob demanda. O índice
+// é long, então o tamanho não fica limitado a 2^31 posições, e o GC não percorre
+// nem copia os dados. Posições nunca escritas valem 0.
+//
+// Os segmentos crescem em progressão geométrica (1, 1, 2, 4... vezes o primeiro,
+// de 8 KiB) até o teto de 128 MiB, e daí em diante têm todos o teto: um array
+// pequeno ocupa pouco, e um grande desperdiça no máximo um segmento. free()
+// devolve a memória na hora, sem esperar o GC achar os buffers.
+final class OffHeapLongArray {
+    private static final int FIRST_SHIFT = 10; // 2^10 longs no primeiro segmento.
+    private static final int MAX_SHIFT = 24; // 2^24 longs no maior segmento.
+    private static final int MAX_MASK = (1 << MAX_SHIFT) - 1;
+    private static final int GEOMETRIC = MAX_SHIFT - FIRST_SHIFT + 1; // Segmentos antes dos de tamanho fixo.
+    private static final long GEOMETRIC_END = 1L << MAX_SHIFT; // Primeiro índice dos segmentos de tamanho fixo.
+    private static final Method INVOKE_CLEANER; // Unsafe.invokeCleaner, ou null se indisponível.
+    private static final Object UNSAFE;
+
+    static {
+        Method cleaner = null;
+        Object unsafe = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            java.lang.reflect.Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            cleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Sem Unsafe, free() só solta as referências e o GC libera os buffers.
+        }
+        INVOKE_CLEANER = cleaner;
+        UNSAFE = unsafe;
+    }
+
+    private ByteBuffer[] segments = new ByteBuffer[0];
+
+    long get(long i) {
+        int s = segment(i);
+        return s < segments.length && segments[s] != null ? segments[s].getLong(8 * offset(i, s)) : 0;
+    }
+
+    void set(long i, long value) {
+        int s = segment(i);
+        if (s >= segments.length) {
+            segments = Arrays.copyOf(segments, Math.max(s + 1, 2 * segments.length));
+        }
+        if (segments[s] == null) {
+            segments[s] = ByteBuffer.allocateDirect(8 * segmentLength(s)).order(ByteOrder.nativeOrder());
+        }
+        segments[s].putLong(8 * offset(i, s), value);
+    }
+
+    void free() {
+        // Libera os segmentos; o array volta a estar vazio.
+        for (ByteBuffer segment : segments) {
+            if (segment != null && INVOKE_CLEANER != null) {
+                try {
+                    INVOKE_CLEANER.invoke(UNSAFE, segment);
+                } catch (ReflectiveOperationException e) {
+                    break; // Fica para o GC.
+                }
+            }
+        }
+        segments = new ByteBuffer[0];
+    }
+
+    private static int segment(long i) {
+        if (i >= GEOMETRIC_END) {
+            return GEOMETRIC + (int) ((i - GEOMETRIC_END) >>> MAX_SHIFT);
+        }
+        return i < 1 << FIRST_SHIFT ? 0 : 64 - Long.numberOfLeadingZeros(i) - FIRST_SHIFT;
+    }
+
+    private static int offset(long i, int s) {
+        if (s >= GEOMETRIC) {
+            return (int) ((i - GEOMETRIC_END) & MAX_MASK);
+        }
+        return s == 0 ? (int) i : (int) (i - (1L << (FIRST_SHIFT + s - 1)));
+    }
+
+    private static int segmentLength(int s) {
+        if (s >= GEOMETRIC) {
+            return 1 << MAX_SHIFT;
+        }
+        return 1 << (FIRST_SHIFT + Math.max(0, s - 1));
+    }
+}
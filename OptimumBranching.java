@@ -0,0 +1,254 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Branching ótimo (arborescência de custo mínimo) no estilo Tarjan/Gabow:
+// cada super-vértice mantém um heap esquerdista com as arestas de entrada,
+// os ciclos são contraídos com union-find e expandidos no final.
+// Custo total O(E log V).
+//
+// Os arrays de trabalho são alocados uma vez e reaproveitados entre chamadas de
+// solve(): as marcas de visita usam carimbos, então nada precisa ser limpo nem
+// realocado por vértice ou por execução. Por isso uma instância não deve ser
+// usada por duas threads ao mesmo tempo.
+final class OptimumBranching {
+    private final CsrGraph graph; // Grafo de entrada.
+    private final int numVertices; // Número de vértices no grafo.
+    private final int numEdges; // Número de arestas no grafo.
+    private final ForkJoinPool pool; // Pool da fase de seleção das arestas mínimas (null = sequencial).
+
+    // Área de trabalho reaproveitada entre execuções.
+    private final EdgeHeap heaps;
+    private final RollbackUnionFind uf;
+    private final int[] heap; // Heap das arestas de entrada de cada super-vértice.
+    private final int[] seen; // Carimbo da busca que visitou cada vértice (< base = não visitado).
+    private final int[] reached; // Carimbo da execução que alcançou cada vértice a partir da raiz.
+    private final int[] path; // Vértices do caminho atual.
+    private final int[] queue; // Arestas escolhidas ao longo do caminho atual.
+    private final int[] stack; // Pilha da busca de alcançabilidade.
+    private final int[] cycleRep; // Ciclos contraídos: representante, instante do union-find e arestas.
+    private final int[] cycleTime;
+    private final int[] cycleStart;
+    private final int[] cycleEdges;
+    private int[] node; // Nó da árvore de contração de cada super-vértice (só com certificado).
+    private int base; // Carimbo da execução atual; cada busca s usa base + s.
+    private int stamp; // Carimbo de alcançabilidade da execução atual.
+
+    OptimumBranching(CsrGraph graph) {
+        this(graph, null);
+    }
+
+    OptimumBranching(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.numVertices = graph.numVertices();
+        this.numEdges = graph.numEdges();
+        this.pool = pool;
+        this.heaps = new EdgeHeap(numEdges);
+        this.uf = new RollbackUnionFind(numVertices);
+        this.heap = new int[numVertices];
+        this.seen = new int[numVertices];
+        this.reached = new int[numVertices];
+        this.path = new int[numVertices];
+        this.queue = new int[numVertices];
+        this.stack = new int[numVertices];
+        this.cycleRep = new int[numVertices];
+        this.cycleTime = new int[numVertices];
+        this.cycleStart = new int[numVertices + 1];
+        this.cycleEdges = new int[2 * numVertices];
+    }
+
+    int[] solve(int root) {
+        return solve(root, null);
+    }
+
+    int[] solve(int root, BranchingCertificate certificate) {
+        return solve(root, certificate, null);
+    }
+
+    int[] solve(int root, BranchingCertificate certificate, boolean[] excluded) {
+        // Devolve, para cada vértice, o índice da aresta de entrada escolhida
+        // (-1 para a raiz e para os vértices inalcançáveis a partir dela). Se certificate
+        // não é null, preenche nele os duais e a árvore de contração (veja BranchingCertificate).
+        // As arestas com excluded[e] (quando excluded não é null) não existem nesta execução.
+        BranchingMetrics metrics = Metrics.get();
+        long t = Metrics.start(metrics);
+        int[] reachable = reached;
+        int reach = markReachable(root, excluded);
+        t = Metrics.lap(metrics, "engine", "reachability", t);
+        if (base > Integer.MAX_VALUE - 2 * numVertices - 1) {
+            Arrays.fill(seen, 0); // Os carimbos esgotaram: recomeça do zero.
+            base = 0;
+        }
+        base += numVertices + 1;
+        uf.rollback(0); // Só sobra algo se uma execução anterior foi interrompida.
+        // Fase 1: cada vértice monta o heap das suas arestas de entrada; o topo é a aresta mínima.
+        // Os vértices são independentes (cada aresta entra em um só heap), então a fase roda
+        // em paralelo, e a ordem fixa das junções mais o desempate pelo índice da aresta
+        // deixam o resultado igual ao sequencial.
+        parallelFor(pool, numVertices, v -> {
+            heap[v] = -1;
+            if (v == root || reachable[v] != reach) {
+                return;
+            }
+            int h = -1;
+            for (int i = graph.firstInIndex(v); i < graph.endInIndex(v); i++) {
+                int e = graph.inEdge(i);
+                int u = graph.source(e);
+                if (u != v && reachable[u] == reach && (excluded == null || !excluded[e])) {
+                    h = heaps.merge(h, heaps.make(e, graph.longCost(e)));
+                }
+            }
+            heap[v] = h;
+        });
+        t = Metrics.lap(metrics, "engine", "select", t);
+
+        int[] inEdge = new int[numVertices]; // Resultado: o único array novo por execução.
+        Arrays.fill(inEdge, -1);
+        seen[root] = base + root;
+        if (certificate != null) {
+            certificate.reset(numVertices);
+            if (node == null) {
+                node = new int[numVertices];
+            }
+            for (int v = 0; v < numVertices; v++) {
+                node[v] = v;
+            }
+        }
+
+        int numCycles = 0;
+        int cycleEdgeCount = 0;
+        long heapOps = 0; // Pops, junções e descontos da fase de contração.
+        long[] cycleLengths = metrics == BranchingMetrics.NONE ? null : new long[16]; // Histograma local dos ciclos.
+
+        for (int s = 0; s < numVertices; s++) {
+            if (reachable[s] != reach) {
+                continue;
+            }
+            int u = s;
+            int qi = 0;
+            int mark = base + s;
+            while (seen[u] < base) {
+                int e = heap[u];
+                long key = heaps.key(e);
+                heap[u] = heaps.pop(e);
+                heapOps++;
+                int p = uf.find(graph.source(e));
+                if (p == u) {
+                    continue; // Aresta interna a um ciclo já contraído.
+                }
+                heaps.add(heap[u], -key);
+                heapOps++;
+                if (certificate != null) {
+                    certificate.dual[node[u]] = key; // O custo reduzido escolhido é o dual do super-vértice.
+                }
+                queue[qi] = e;
+                path[qi++] = u;
+                seen[u] = mark;
+                u = p;
+                if (seen[u] == mark) {
+                    // Fecha um ciclo: junta os heaps e contrai o ciclo em um super-vértice.
+                    int cycleHeap = -1;
+                    int end = qi;
+                    int time = uf.time();
+                    int w;
+                    do {
+                        w = path[--qi];
+                        cycleHeap = heaps.merge(cycleHeap, heap[w]);
+                    } while (uf.join(u, w));
+                    heapOps += end - qi;
+                    if (cycleLengths != null) {
+                        cycleLengths = Metrics.countCycle(cycleLengths, end - qi);
+                    }
+                    u = uf.find(u);
+                    heap[u] = cycleHeap;
+                    if (certificate != null) {
+                        int c = numVertices + numCycles; // Nó do ciclo na árvore de contração.
+                        for (int i = qi; i < end; i++) {
+                            certificate.parent[node[path[i]]] = c;
+                        }
+                        node[u] = c;
+                        certificate.numNodes = c + 1;
+                    }
+                    seen[u] = 0; // O super-vértice volta a ser não visitado.
+
+                    cycleRep[numCycles] = u;
+                    cycleTime[numCycles] = time;
+                    cycleStart[numCycles] = cycleEdgeCount;
+                    for (int i = qi; i < end; i++) {
+                        cycleEdges[cycleEdgeCount++] = queue[i];
+                    }
+                    numCycles++;
+                    cycleStart[numCycles] = cycleEdgeCount;
+                }
+            }
+            for (int i = 0; i < qi; i++) {
+                inEdge[uf.find(graph.target(queue[i]))] = queue[i];
+            }
+        }
+
+        t = Metrics.lap(metrics, "engine", "contract", t);
+        if (cycleLengths != null) {
+            metrics.contractions("engine", cycleLengths);
+        }
+
+        // Expande os ciclos na ordem inversa da contração.
+        for (int c = numCycles - 1; c >= 0; c--) {
+            uf.rollback(cycleTime[c]);
+            int enteringEdge = inEdge[cycleRep[c]];
+            for (int i = cycleStart[c]; i < cycleStart[c + 1]; i++) {
+                int e = cycleEdges[i];
+                inEdge[uf.find(graph.target(e))] = e;
+            }
+            inEdge[uf.find(graph.target(enteringEdge))] = enteringEdge;
+        }
+        Metrics.lap(metrics, "engine", "expand", t);
+        if (metrics != BranchingMetrics.NONE) {
+            long out = 0; // Arestas examinadas na busca de alcance.
+            long in = 0; // Arestas examinadas (e inseridas nos heaps) na seleção.
+            for (int v = 0; v < numVertices; v++) {
+                if (reachable[v] == reach) {
+                    out += graph.endOutEdge(v) - graph.firstOutEdge(v);
+                    in += v == root ? 0 : graph.endInIndex(v) - graph.firstInIndex(v);
+                }
+            }
+            metrics.edgesScanned("engine", out + in);
+            metrics.heapOperations("engine", heapOps + in);
+        }
+        return inEdge;
+    }
+
+    static void parallelFor(ForkJoinPool pool, int n, IntConsumer action) {
+        // Executa action para 0 .. n - 1, em paralelo se houver pool.
+        if (pool == null || pool.getParallelism() <= 1) {
+            for (int i = 0; i < n; i++) {
+                action.accept(i);
+            }
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, n).parallel().forEach(action)));
+        }
+    }
+
+    private int markReachable(int root, boolean[] excluded) {
+        // Carimba os vértices alcançáveis a partir da raiz e devolve o carimbo usado.
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            stamp = 1;
+        }
+        int top = 0;
+        reached[root] = stamp;
+        stack[top++] = root;
+        while (top > 0) {
+            int u = stack[--top];
+            for (int e = graph.firstOutEdge(u); e < graph.endOutEdge(u); e++) {
+                int v = graph.target(e);
+                if (reached[v] != stamp && (excluded == null || !excluded[e])) {
+                    reached[v] = stamp;
+                    stack[top++] = v;
+                }
+            }
+        }
+        return stamp;
+    }
+}
@@ -0,0 +1,276 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Componentes fortemente conexas em paralelo (forward-backward, Fleischer/Hendrickson/
+// Pinar) sobre um CsrGraph, mais o DAG de condensação.
+//
+// A partir de um pivô, a busca para frente (F) e para trás (B) dentro do conjunto
+// atual dá a componente do pivô (F ∩ B); F \ B, B \ F e o resto não têm componentes
+// em comum e viram tarefas independentes no fork-join. Conjuntos pequenos são
+// resolvidos pelo Tarjan sequencial, e antes de cada pivô os vértices sem entrada ou
+// sem saída no conjunto são retirados (trimming). Cada conjunto vivo tem uma cor
+// própria, então as tarefas só leem e escrevem as suas cores e nunca se confundem.
+final class ParallelStronglyConnectedComponents {
+    private static final int SEQUENTIAL_THRESHOLD = 4096; // Abaixo disso, Tarjan sequencial.
+    private static final int MAX_STALLS = 4; // Pivôs seguidos que arrancam menos de 10% do conjunto.
+
+    private final CsrGraph graph; // Grafo de entrada.
+    private final int[] color; // Conjunto atual de cada vértice (-1 quando a componente já foi definida).
+    private final int[] component; // Componente de cada vértice.
+    private final int[] local; // Índice local de cada vértice no Tarjan do seu conjunto.
+    private final AtomicInteger nextColor = new AtomicInteger(1);
+    private final AtomicInteger nextComponent = new AtomicInteger();
+    private final int count; // Número de componentes.
+    private final int[] dagOffsets; // Sucessores da componente c em dagTargets[dagOffsets[c] .. dagOffsets[c + 1]).
+    private final int[] dagTargets;
+
+    ParallelStronglyConnectedComponents(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        int numVertices = graph.numVertices();
+        this.color = new int[numVertices];
+        this.component = new int[numVertices];
+        this.local = new int[numVertices];
+        int[] all = new int[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            all[v] = v;
+        }
+        boolean parallel = pool != null && pool.getParallelism() > 1;
+        Split task = new Split(all, 0, parallel);
+        if (parallel) {
+            pool.invoke(task);
+        } else {
+            task.compute();
+        }
+        this.count = nextComponent.get();
+
+        // DAG de condensação: uma aresta por aresta do grafo entre componentes distintas.
+        this.dagOffsets = new int[count + 1];
+        for (int e = 0; e < graph.numEdges(); e++) {
+            int a = component[graph.source(e)];
+            if (a != component[graph.target(e)]) {
+                dagOffsets[a + 1]++;
+            }
+        }
+        for (int c = 0; c < count; c++) {
+            dagOffsets[c + 1] += dagOffsets[c];
+        }
+        this.dagTargets = new int[dagOffsets[count]];
+        int[] next = Arrays.copyOf(dagOffsets, count);
+        for (int e = 0; e < graph.numEdges(); e++) {
+            int a = component[graph.source(e)];
+            int b = component[graph.target(e)];
+            if (a != b) {
+                dagTargets[next[a]++] = b;
+            }
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    int component(int v) {
+        return component[v];
+    }
+
+    int firstSuccessor(int c) {
+        return dagOffsets[c];
+    }
+
+    int endSuccessor(int c) {
+        return dagOffsets[c + 1];
+    }
+
+    int successor(int i) {
+        return dagTargets[i];
+    }
+
+    private final class Split extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] vertices; // Vértices do conjunto.
+        private final int c; // Cor do conjunto.
+        private final boolean parallel; // Subconjuntos viram tarefas do pool (false = recursão direta).
+
+        Split(int[] vertices, int c, boolean parallel) {
+            this.vertices = vertices;
+            this.c = c;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected void compute() {
+            // O maior pedaço continua nesta tarefa e os outros dois (cada um com no máximo
+            // metade do conjunto) são bifurcados, o que limita a profundidade a O(log V).
+            // Se os pivôs só arrancam pedaços pequenos, o resto vai para o Tarjan.
+            List<Split> forked = new ArrayList<>();
+            int[] set = vertices;
+            int color = c;
+            int stalls = 0;
+            while (set.length > 0) {
+                if (set.length <= SEQUENTIAL_THRESHOLD || stalls >= MAX_STALLS) {
+                    tarjan(set, color);
+                    break;
+                }
+                set = trim(set, color);
+                if (set.length == 0) {
+                    break;
+                }
+                int[] colors = pivot(set, color);
+                int[][] parts = {split(set, colors[0]), split(set, colors[1]), split(set, color)};
+                int largest = 0;
+                for (int k = 1; k < 3; k++) {
+                    if (parts[k].length > parts[largest].length) {
+                        largest = k;
+                    }
+                }
+                for (int k = 0; k < 3; k++) {
+                    if (k != largest && parts[k].length > 0) {
+                        Split task = new Split(parts[k], k < 2 ? colors[k] : color, parallel);
+                        if (parallel) {
+                            task.fork();
+                            forked.add(task);
+                        } else {
+                            task.compute();
+                        }
+                    }
+                }
+                stalls = 10L * parts[largest].length > 9L * set.length ? stalls + 1 : 0;
+                set = parts[largest];
+                color = largest < 2 ? colors[largest] : color;
+            }
+            for (Split task : forked) {
+                task.join();
+            }
+        }
+
+        private int[] trim(int[] set, int color) {
+            // Vértices sem entrada ou sem saída dentro do conjunto são componentes sozinhos.
+            int size = 0;
+            for (int v : set) {
+                boolean hasIn = false;
+                for (int i = graph.firstInIndex(v); i < graph.endInIndex(v) && !hasIn; i++) {
+                    int u = graph.source(graph.inEdge(i));
+                    hasIn = u != v && ParallelStronglyConnectedComponents.this.color[u] == color;
+                }
+                boolean hasOut = false;
+                for (int e = graph.firstOutEdge(v); e < graph.endOutEdge(v) && hasIn && !hasOut; e++) {
+                    int w = graph.target(e);
+                    hasOut = w != v && ParallelStronglyConnectedComponents.this.color[w] == color;
+                }
+                if (hasIn && hasOut) {
+                    size++;
+                } else {
+                    ParallelStronglyConnectedComponents.this.color[v] = -1;
+                    component[v] = nextComponent.getAndIncrement();
+                }
+            }
+            return size == set.length ? set : split(set, color);
+        }
+
+        private int[] pivot(int[] set, int c) {
+            // Busca para frente e para trás a partir de set[0]; a componente do pivô sai com
+            // cor -1 e devolve as cores de F \ B e B \ F.
+            int pivot = set[0];
+            int forward = nextColor.getAndIncrement();
+            int backward = nextColor.getAndIncrement();
+            int[] stack = new int[set.length];
+
+            // Para frente: o que o pivô alcança dentro do conjunto.
+            int top = 0;
+            color[pivot] = forward;
+            stack[top++] = pivot;
+            while (top > 0) {
+                int u = stack[--top];
+                for (int e = graph.firstOutEdge(u); e < graph.endOutEdge(u); e++) {
+                    int v = graph.target(e);
+                    if (color[v] == c) {
+                        color[v] = forward;
+                        stack[top++] = v;
+                    }
+                }
+            }
+            // Para trás: quem alcança o pivô; os que também estão em F formam a componente.
+            int id = nextComponent.getAndIncrement();
+            color[pivot] = -1;
+            component[pivot] = id;
+            stack[top++] = pivot;
+            while (top > 0) {
+                int v = stack[--top];
+                for (int i = graph.firstInIndex(v); i < graph.endInIndex(v); i++) {
+                    int u = graph.source(graph.inEdge(i));
+                    if (color[u] == forward) {
+                        color[u] = -1;
+                        component[u] = id;
+                        stack[top++] = u;
+                    } else if (color[u] == c) {
+                        color[u] = backward;
+                        stack[top++] = u;
+                    }
+                }
+            }
+            return new int[] {forward, backward};
+        }
+
+        private int[] split(int[] set, int part) {
+            // Vértices do conjunto que estão com a cor part.
+            int size = 0;
+            for (int v : set) {
+                if (color[v] == part) {
+                    size++;
+                }
+            }
+            int[] result = new int[size];
+            size = 0;
+            for (int v : set) {
+                if (color[v] == part) {
+                    result[size++] = v;
+                }
+            }
+            return result;
+        }
+
+        private void tarjan(int[] set, int c) {
+            // Tarjan sequencial sobre o subgrafo induzido pelo conjunto.
+            int n = set.length;
+            for (int i = 0; i < n; i++) {
+                local[set[i]] = i;
+            }
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                int u = set[i];
+                for (int e = graph.firstOutEdge(u); e < graph.endOutEdge(u); e++) {
+                    if (color[graph.target(e)] == c) {
+                        offsets[i + 1]++;
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] targets = new int[offsets[n]];
+            for (int i = 0; i < n; i++) {
+                int u = set[i];
+                int k = offsets[i];
+                for (int e = graph.firstOutEdge(u); e < graph.endOutEdge(u); e++) {
+                    int v = graph.target(e);
+                    if (color[v] == c) {
+                        targets[k++] = local[v];
+                    }
+                }
+            }
+            StronglyConnectedComponents scc = new StronglyConnectedComponents(n, offsets, targets);
+            int base = nextComponent.getAndAdd(scc.count());
+            for (int i = 0; i < n; i++) {
+                component[set[i]] = base + scc.component(i);
+            }
+            for (int i = 0; i < n; i++) {
+                color[set[i]] = -1;
+            }
+        }
+    }
+}
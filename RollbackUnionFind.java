@@ -0,0 +1,59 @@
+import java.util.Arrays;
+
+// Union-find com união por tamanho e sem compressão de caminho,
+// o que permite desfazer as uniões na ordem inversa (rollback).
+final class RollbackUnionFind {
+    private final int[] parent; // Pai do elemento, ou -tamanho se for raiz.
+    private final int[] historyIndex; // Posições alteradas, na ordem das alterações.
+    private final int[] historyValue; // Valores anteriores dessas posições.
+    private int top; // Tamanho atual do histórico.
+
+    RollbackUnionFind(int n) {
+        this.parent = new int[n];
+        this.historyIndex = new int[2 * n];
+        this.historyValue = new int[2 * n];
+        Arrays.fill(parent, -1);
+    }
+
+    int find(int x) {
+        while (parent[x] >= 0) {
+            x = parent[x];
+        }
+        return x;
+    }
+
+    int time() {
+        return top;
+    }
+
+    void rollback(int t) {
+        while (top > t) {
+            top--;
+            parent[historyIndex[top]] = historyValue[top];
+        }
+    }
+
+    boolean join(int a, int b) {
+        a = find(a);
+        b = find(b);
+        if (a == b) {
+            return false;
+        }
+        if (parent[a] > parent[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        record(a);
+        record(b);
+        parent[a] += parent[b];
+        parent[b] = a;
+        return true;
+    }
+
+    private void record(int x) {
+        historyIndex[top] = x;
+        historyValue[top] = parent[x];
+        top++;
+    }
+}
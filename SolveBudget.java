@@ -0,0 +1,83 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// Orçamento de uma execução dos algoritmos sem limite próprio (Edmonds2 e
+// Edmonds3): prazo, número máximo de arestas examinadas e cancelamento por
+// outra thread. Quando o orçamento acaba, o algoritmo para no próximo ponto de
+// verificação e devolve o melhor branching viável que tiver até ali, marcando
+// isExhausted() e gravando o peso dele em costBound().
+//
+// Os algoritmos recebem null quando não há orçamento: o caminho sem orçamento
+// paga só um teste de null por ponto de verificação. Com orçamento, cada
+// verificação é uma soma atômica e uma leitura volátil; o relógio só é lido
+// quando a contagem de arestas cruza um múltiplo de CLOCK_INTERVAL. Um objeto
+// serve para uma execução (pode ser compartilhado pelas threads dela).
+final class SolveBudget {
+    private static final long CLOCK_INTERVAL = 1 << 12; // Arestas entre duas leituras do relógio.
+
+    private final long deadline; // Prazo em System.nanoTime() (Long.MAX_VALUE = sem prazo).
+    private final long maxScans; // Máximo de arestas examinadas (Long.MAX_VALUE = sem limite).
+    private final AtomicLong scanned = new AtomicLong(); // Arestas examinadas até agora.
+    private volatile boolean cancelled; // Pedido de cancelamento vindo de outra thread.
+    private volatile boolean exhausted; // O algoritmo parou antes de terminar.
+    private volatile long costBound; // Peso do branching parcial devolvido.
+
+    private SolveBudget(long deadline, long maxScans) {
+        this.deadline = deadline;
+        this.maxScans = maxScans;
+    }
+
+    static SolveBudget of(long timeoutNanos, long maxScans) {
+        // timeoutNanos ou maxScans <= 0 desligam o limite correspondente.
+        long deadline = timeoutNanos > 0 ? System.nanoTime() + timeoutNanos : Long.MAX_VALUE;
+        return new SolveBudget(deadline < 0 ? Long.MAX_VALUE : deadline, maxScans > 0 ? maxScans : Long.MAX_VALUE);
+    }
+
+    static SolveBudget withTimeout(long timeoutNanos) {
+        return of(timeoutNanos, 0);
+    }
+
+    static SolveBudget withEdgeScans(long maxScans) {
+        return of(0, maxScans);
+    }
+
+    static SolveBudget cancellable() {
+        // Sem prazo nem limite: só para cancel().
+        return of(0, 0);
+    }
+
+    void cancel() {
+        // Pode ser chamado de qualquer thread; o algoritmo para no próximo ponto de verificação.
+        cancelled = true;
+    }
+
+    boolean charge(long edges) {
+        // Conta edges arestas examinadas e devolve true se o orçamento acabou (daí em diante, sempre true).
+        if (exhausted) {
+            return true;
+        }
+        long total = scanned.addAndGet(edges);
+        boolean clock = deadline != Long.MAX_VALUE && (total / CLOCK_INTERVAL != (total - edges) / CLOCK_INTERVAL || edges >= CLOCK_INTERVAL);
+        if (cancelled || total > maxScans || (clock && System.nanoTime() - deadline >= 0)) {
+            exhausted = true;
+        }
+        return exhausted;
+    }
+
+    void record(long costBound) {
+        // Chamado pelo algoritmo ao devolver o branching parcial.
+        this.costBound = costBound;
+    }
+
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    long costBound() {
+        // Peso do branching parcial devolvido: limite inferior do peso do branching ótimo.
+        return costBound;
+    }
+
+    long scanned() {
+        return scanned.get();
+    }
+}
@@ -0,0 +1,76 @@
+import java.util.Arrays;
+
+// Componentes fortemente conexas (Tarjan, versão iterativa) de um grafo dado em
+// CSR de saída: as arestas de v ficam em targets[offsets[v] .. offsets[v + 1]).
+// As componentes saem numeradas em ordem topológica reversa: toda aresta entre
+// componentes vai de um número maior para um menor.
+final class StronglyConnectedComponents {
+    private final int[] component; // Componente de cada vértice.
+    private final int count; // Número de componentes.
+
+    StronglyConnectedComponents(int numVertices, int[] offsets, int[] targets) {
+        this.component = new int[numVertices];
+        int[] index = new int[numVertices]; // Ordem de descoberta (-1 = não visitado).
+        int[] low = new int[numVertices];
+        int[] next = new int[numVertices]; // Próxima aresta a examinar em cada vértice.
+        int[] stack = new int[numVertices]; // Pilha de Tarjan.
+        int[] call = new int[numVertices]; // Pilha de chamadas da DFS.
+        boolean[] onStack = new boolean[numVertices];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int top = 0;
+        int components = 0;
+
+        for (int s = 0; s < numVertices; s++) {
+            if (index[s] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            index[s] = low[s] = counter++;
+            next[s] = offsets[s];
+            stack[top++] = s;
+            onStack[s] = true;
+            call[depth++] = s;
+            while (depth > 0) {
+                int v = call[depth - 1];
+                if (next[v] < offsets[v + 1]) {
+                    int w = targets[next[v]++];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        next[w] = offsets[w];
+                        stack[top++] = w;
+                        onStack[w] = true;
+                        call[depth++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = call[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == index[v]) {
+                    // v é a raiz de uma componente: desempilha até ele.
+                    int w;
+                    do {
+                        w = stack[--top];
+                        onStack[w] = false;
+                        component[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+            }
+        }
+        this.count = components;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int component(int v) {
+        return component[v];
+    }
+}
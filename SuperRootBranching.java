@@ -0,0 +1,159 @@
+import java.util.concurrent.ForkJoinPool;
+
+// Branching ótimo com o objetivo (custo mínimo ou peso máximo) e o modo da raiz
+// (raiz fixa, melhor raiz ou floresta) como parâmetros, todos resolvidos pelo
+// OptimumBranching.
+//
+// Maximizar é minimizar com os custos negados. Os modos sem raiz fixa usam uma
+// super-raiz virtual (o vértice numVertices) com uma aresta para cada vértice:
+//   FOREST: a aresta virtual custa 0, então um vértice só fica pendurado em outro
+//           quando isso melhora o total; as arestas virtuais escolhidas marcam as
+//           raízes da floresta ótima.
+//   BEST:   a aresta virtual custa mais do que qualquer conjunto de arestas reais,
+//           então o ótimo usa o menor número possível de arestas virtuais (uma só
+//           quando algum vértice alcança todos) e, entre esses, o menor custo. A
+//           melhor raiz sai de uma única execução, em vez de V execuções.
+// Como a super-raiz é o último vértice e o CSR ordena as arestas pela origem, as
+// arestas reais mantêm os seus números no grafo aumentado.
+//
+// Os grafos aumentados ficam num Augmented, que vários motores do mesmo grafo
+// podem compartilhar; cada motor tem só as suas áreas de trabalho.
+final class SuperRootBranching {
+    private final CsrGraph graph; // Grafo de entrada.
+    private final int numVertices; // Número de vértices no grafo.
+    private final int numEdges; // Número de arestas no grafo.
+    private final ForkJoinPool pool; // Pool das fases paralelas (null = sequencial).
+    private final Augmented augmented; // Grafos de cada objetivo e modo, talvez compartilhados.
+    private final OptimumBranching[][] engines = new OptimumBranching[2][3]; // Motor de cada objetivo e modo, criado sob demanda.
+    private long size; // Vértices + arestas dos grafos dos motores criados; a área de trabalho é proporcional.
+
+    SuperRootBranching(CsrGraph graph, ForkJoinPool pool) {
+        this(new Augmented(graph), pool);
+    }
+
+    SuperRootBranching(Augmented augmented, ForkJoinPool pool) {
+        this.augmented = augmented;
+        this.graph = augmented.graph;
+        this.numVertices = graph.numVertices();
+        this.numEdges = graph.numEdges();
+        this.pool = pool;
+    }
+
+    long size() {
+        // Tamanho das áreas de trabalho dos motores, na unidade vértices + arestas (sem os grafos).
+        return size;
+    }
+
+    Result solve(Edmonds.Objective objective, Edmonds.RootMode mode, int root) {
+        // root só é usada no modo FIXED.
+        if (mode == Edmonds.RootMode.FIXED && (root < 0 || root >= numVertices)) {
+            throw new IllegalArgumentException("raiz fora do intervalo: " + root);
+        }
+        OptimumBranching engine = engines[objective.ordinal()][mode.ordinal()];
+        if (engine == null) {
+            CsrGraph built = augmented.get(objective, mode);
+            engine = new OptimumBranching(built, pool);
+            engines[objective.ordinal()][mode.ordinal()] = engine;
+            size += (long) built.numVertices() + built.numEdges();
+        }
+        int[] solved = engine.solve(mode == Edmonds.RootMode.FIXED ? root : numVertices);
+
+        int[] parentEdge = new int[numVertices];
+        int numRoots = 0;
+        long cost = 0;
+        for (int v = 0; v < numVertices; v++) {
+            int e = solved[v];
+            parentEdge[v] = e < numEdges ? e : -1; // As arestas virtuais vêm depois das reais.
+            if (e >= numEdges || (mode == Edmonds.RootMode.FIXED && v == root)) {
+                numRoots++;
+            } else if (e >= 0) {
+                cost += graph.longCost(e);
+            }
+        }
+        int[] roots = new int[numRoots];
+        numRoots = 0;
+        for (int v = 0; v < numVertices; v++) {
+            if (solved[v] >= numEdges || (mode == Edmonds.RootMode.FIXED && v == root)) {
+                roots[numRoots++] = v;
+            }
+        }
+        return new Result(parentEdge, roots, cost);
+    }
+
+    static final class Augmented {
+        // Grafos aumentados de um grafo, criados sob demanda uma vez só; thread-safe, para os
+        // motores de um mesmo grafo usados por threads diferentes.
+        final CsrGraph graph; // Grafo de entrada.
+        private final CsrGraph[][] built = new CsrGraph[2][3]; // Grafo de cada objetivo e modo.
+        private long size; // Vértices + arestas dos grafos criados além do original.
+
+        Augmented(CsrGraph graph) {
+            this.graph = graph;
+        }
+
+        synchronized CsrGraph get(Edmonds.Objective objective, Edmonds.RootMode mode) {
+            CsrGraph result = built[objective.ordinal()][mode.ordinal()];
+            if (result == null) {
+                result = build(graph, objective, mode);
+                built[objective.ordinal()][mode.ordinal()] = result;
+                if (result != graph) {
+                    size += (long) result.numVertices() + result.numEdges();
+                }
+            }
+            return result;
+        }
+
+        synchronized long size() {
+            return size;
+        }
+    }
+
+    private static CsrGraph build(CsrGraph graph, Edmonds.Objective objective, Edmonds.RootMode mode) {
+        // Grafo com os custos do objetivo e, fora do modo FIXED, a super-raiz.
+        if (objective == Edmonds.Objective.MIN && mode == Edmonds.RootMode.FIXED) {
+            return graph; // Nada muda: usa o grafo original sem copiar.
+        }
+        int numVertices = graph.numVertices();
+        int numEdges = graph.numEdges();
+        int extra = mode == Edmonds.RootMode.FIXED ? 0 : numVertices;
+        int[] from = new int[numEdges + extra];
+        int[] to = new int[numEdges + extra];
+        long[] cost = new long[numEdges + extra];
+        long total = 0; // Soma dos custos absolutos, para o custo da aresta virtual no modo BEST.
+        for (int e = 0; e < numEdges; e++) {
+            from[e] = graph.source(e);
+            to[e] = graph.target(e);
+            cost[e] = objective == Edmonds.Objective.MAX ? Math.negateExact(graph.longCost(e)) : graph.longCost(e);
+            total = Math.addExact(total, Math.abs(cost[e]));
+        }
+        if (extra == 0) {
+            return CsrGraph.fromEdges(numVertices, from, to, cost);
+        }
+        long virtualCost = 0;
+        if (mode == Edmonds.RootMode.BEST) {
+            // Com folga para os descontos acumulados nos heaps não estourarem.
+            if (total >= Long.MAX_VALUE / 4) {
+                throw new ArithmeticException("custos grandes demais para o modo BEST");
+            }
+            virtualCost = total + 1;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            from[numEdges + v] = numVertices;
+            to[numEdges + v] = v;
+            cost[numEdges + v] = virtualCost;
+        }
+        return CsrGraph.fromEdges(numVertices + 1, from, to, cost);
+    }
+
+    static final class Result {
+        final int[] parentEdge; // Aresta de entrada de cada vértice (-1 nas raízes e nos inalcançáveis).
+        final int[] roots; // Raízes do branching, em ordem crescente.
+        final long cost; // Soma dos custos originais das arestas escolhidas.
+
+        Result(int[] parentEdge, int[] roots, long cost) {
+            this.parentEdge = parentEdge;
+            this.roots = roots;
+            this.cost = cost;
+        }
+    }
+}